@@ -0,0 +1,92 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import java.util.function.Supplier;
+
+import ro.sync.ecss.extensions.api.AuthorDocumentController;
+import ro.sync.ecss.extensions.api.access.EditingSessionContext;
+import ro.sync.ecss.extensions.api.webapp.AuthorDocumentModel;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+import ro.sync.ecss.extensions.api.webapp.findreplace.WebappFindOptions;
+
+/**
+ * The editing session of a Web Author operation, backed by its document model.
+ */
+class AuthorDocumentModelEditor implements SpellcheckEditor {
+
+  /**
+   * The document model.
+   */
+  private final AuthorDocumentModel model;
+
+  /**
+   * Constructor.
+   *
+   * @param model The document model.
+   */
+  AuthorDocumentModelEditor(AuthorDocumentModel model) {
+    this.model = model;
+  }
+
+  @Override
+  public AuthorDocumentController getDocumentController() {
+    return model.getAuthorDocumentController();
+  }
+
+  @Override
+  public WebappSpellchecker getSpellchecker() {
+    return model.getSpellchecker();
+  }
+
+  @Override
+  public int getCaretOffset() {
+    return model.getSelectionModel().getCaretOffset();
+  }
+
+  @Override
+  public void select(int startOffset, int endOffset) {
+    model.getSelectionModel().setSelection(startOffset, endOffset);
+  }
+
+  @Override
+  public void moveCaretTo(int offset) {
+    model.getSelectionModel().moveTo(offset);
+  }
+
+  @Override
+  public void replaceAll(String oldWord, String newWord) {
+    WebappFindOptions options = new WebappFindOptions();
+    options.setMatchCase(true);
+    options.setWholeWords(true);
+    model.getFindReplaceSupport().replaceAll(oldWord, newWord, options);
+  }
+
+  @Override
+  public Object getSessionAttribute(String name) {
+    return getEditingContext().getAttribute(name);
+  }
+
+  @Override
+  public void setSessionAttribute(String name, Object value) {
+    getEditingContext().setAttribute(name, value);
+  }
+
+  @Override
+  public Object getOrCreateSessionAttribute(String name, Supplier<Object> factory) {
+    EditingSessionContext editingContext = getEditingContext();
+    synchronized (editingContext) {
+      Object value = editingContext.getAttribute(name);
+      if (value == null) {
+        value = factory.get();
+        editingContext.setAttribute(name, value);
+      }
+      return value;
+    }
+  }
+
+  /**
+   * @return The editing session context.
+   */
+  private EditingSessionContext getEditingContext() {
+    return model.getAuthorAccess().getEditorAccess().getEditingContext();
+  }
+}
@@ -2,9 +2,6 @@ package com.oxygenxml.webapp.plugins.spellcheck;
 
 import ro.sync.ecss.extensions.api.ArgumentsMap;
 import ro.sync.ecss.extensions.api.AuthorOperationException;
-import ro.sync.ecss.extensions.api.access.EditingSessionContext;
-import ro.sync.ecss.extensions.api.webapp.AuthorDocumentModel;
-import ro.sync.ecss.extensions.api.webapp.AuthorOperationWithResult;
 import ro.sync.ecss.extensions.api.webapp.WebappRestSafe;
 
 import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckContext;
@@ -15,12 +12,15 @@ import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckContext;
  * @author mihaela
  */
 @WebappRestSafe
-public class ClearSpellingContextInformationOperation extends AuthorOperationWithResult {
+public class ClearSpellingContextInformationOperation extends SpellcheckOperation {
   
   @Override
-  public String doOperation(AuthorDocumentModel model, ArgumentsMap args) throws AuthorOperationException {
-    EditingSessionContext editingContext = model.getAuthorAccess().getEditorAccess().getEditingContext();
-    editingContext.setAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME, null);
+  protected String perform(SpellcheckEditor editor, ArgumentsMap args) throws AuthorOperationException {
+    SpellcheckContext spellcheckContext = (SpellcheckContext) editor.getSessionAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME);
+    if (spellcheckContext != null) {
+      spellcheckContext.stopTrackingDocumentChanges();
+    }
+    editor.setSessionAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME, null);
     return null;
   }
 }
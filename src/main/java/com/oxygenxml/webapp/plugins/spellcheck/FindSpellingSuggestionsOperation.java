@@ -0,0 +1,157 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckExecutor.Priority;
+import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckContext;
+
+import lombok.extern.slf4j.Slf4j;
+import ro.sync.ecss.extensions.api.ArgumentsMap;
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+import ro.sync.ecss.extensions.api.SpellCheckingProblemInfo;
+import ro.sync.ecss.extensions.api.webapp.WebappRestSafe;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+
+/**
+ * Operation that computes the suggestions for a spelling problem.
+ * 
+ * The navigation operations can skip the suggestions, which are then requested with this operation
+ * only when they are displayed. The suggestions are cached in the spellcheck context.
+ * 
+ * The host lookup reads the document, so it runs on the request thread. It cannot be interrupted, so the
+ * time budget only applies before it starts: when the budget is spent waiting for a slot, the operation
+ * returns no suggestions and reports the time out, and the client can ask again.
+ */
+@WebappRestSafe
+@Slf4j
+public class FindSpellingSuggestionsOperation extends SpellcheckOperation {
+
+  /**
+   * Argument name for the maximum number of suggestions returned. It only bounds the size of the response:
+   * the host spellchecker takes no limit, so it does not make the lookup cheaper.
+   */
+  private static final String MAX_SUGGESTIONS_ARGUMENT_NAME = "maxSuggestions";
+
+  /**
+   * Argument name for the time budget, in milliseconds, after which the lookup is no longer started.
+   */
+  private static final String TIME_BUDGET_ARGUMENT_NAME = "timeBudgetMs";
+
+  /**
+   * Default maximum number of suggestions.
+   */
+  private static final int DEFAULT_MAX_SUGGESTIONS = 10;
+
+  /**
+   * Default time budget, in milliseconds.
+   */
+  private static final int DEFAULT_TIME_BUDGET_MS = 1000;
+
+  /**
+   * Find the suggestions for the word given in the arguments.
+   * 
+   * @param editor The editing session.
+   * @param args The operation arguments.
+   * 
+   * @return The suggestions as JSON string.
+   * 
+   * @throws AuthorOperationException If the suggestions cannot be computed.
+   */
+  @Override
+  protected String perform(SpellcheckEditor editor, ArgumentsMap args) throws AuthorOperationException {
+    String word = (String) args.getArgumentValue("word");
+    String language = (String) args.getArgumentValue("language");
+    int startOffset = GoToNextSpellingErrorOperation.getIntArgument(args, "startOffset", -1);
+    int maxSuggestions = GoToNextSpellingErrorOperation.getIntArgument(
+        args, MAX_SUGGESTIONS_ARGUMENT_NAME, DEFAULT_MAX_SUGGESTIONS);
+    int timeBudgetMs = GoToNextSpellingErrorOperation.getIntArgument(
+        args, TIME_BUDGET_ARGUMENT_NAME, DEFAULT_TIME_BUDGET_MS);
+
+    SpellcheckContext spellcheckContext = (SpellcheckContext) editor.getSessionAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME);
+    if (word == null || language == null || spellcheckContext == null) {
+      return getSuggestionsResult(new String[0], false);
+    }
+
+    String[] suggestions = spellcheckContext.getCachedSuggestions(word, language);
+    boolean timedOut = false;
+    if (suggestions == null) {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+      try {
+        String currentWord = startOffset < 0 ? null : 
+          SelectSpellingProblemOperation.getWord(editor.getDocumentController(), startOffset, startOffset + word.length() - 1);
+        if (!word.equals(currentWord)) {
+          // The document changed, the suggestions are no longer needed.
+          return getSuggestionsResult(new String[0], false);
+        }
+      } catch (BadLocationException e) {
+        return getSuggestionsResult(new String[0], false);
+      }
+
+      SpellCheckingProblemInfo problem = new SpellCheckingProblemInfo(
+          startOffset, startOffset + word.length() - 1, 0, language, word);
+      try {
+        // When the budget was spent waiting for a slot, the lookup is not started.
+        suggestions = SpellcheckExecutor.getInstance().execute(Priority.INTERACTIVE,
+            () -> System.nanoTime() - deadline < 0 
+                ? computeSuggestions(editor.getSpellchecker(), problem, spellcheckContext) 
+                : null);
+      } catch (SpellcheckRejectedException e) {
+        log.warn(e.getMessage());
+        return GoToNextSpellingErrorOperation.REJECTED_RESPONSE;
+      }
+      if (suggestions == null) {
+        timedOut = true;
+        suggestions = new String[0];
+      }
+    }
+
+    if (suggestions.length > maxSuggestions) {
+      suggestions = Arrays.copyOf(suggestions, Math.max(0, maxSuggestions));
+    }
+    return getSuggestionsResult(suggestions, timedOut);
+  }
+
+  /**
+   * Compute the suggestions for a problem and cache them.
+   * 
+   * @param spellchecker The spellchecker.
+   * @param problem The problem.
+   * @param spellcheckContext The spellcheck context that caches the suggestions.
+   * 
+   * @return The suggestions.
+   * 
+   * @throws AuthorOperationException If the suggestions cannot be computed.
+   */
+  private static String[] computeSuggestions(WebappSpellchecker spellchecker, SpellCheckingProblemInfo problem, 
+      SpellcheckContext spellcheckContext) throws AuthorOperationException {
+    String[] suggestions = MoreObjects.firstNonNull(
+        GoToNextSpellingErrorOperation.findSuggestions(spellchecker, problem), new String[0]);
+    spellcheckContext.cacheSuggestions(problem.getWord(), problem.getLanguageIsoName(), suggestions);
+    return suggestions;
+  }
+
+  /**
+   * Get the result of the operation.
+   * 
+   * @param suggestions The suggestions.
+   * @param timedOut <code>true</code> if the suggestions could not be computed in the time budget.
+   * @return The result as JSON string.
+   * @throws AuthorOperationException If the serialization fails.
+   */
+  private String getSuggestionsResult(String[] suggestions, boolean timedOut) throws AuthorOperationException {
+    try {
+      return new ObjectMapper().writeValueAsString(ImmutableMap.of(
+          "suggestions", suggestions,
+          "timedOut", timedOut));
+    } catch (IOException e) {
+      throw new AuthorOperationException(e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.oxygenxml.webapp.plugins.spellcheck.batch.BatchSpellcheckJob;
+
+import ro.sync.ecss.extensions.api.ArgumentsMap;
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+import ro.sync.ecss.extensions.api.access.EditingSessionContext;
+import ro.sync.ecss.extensions.api.webapp.AuthorDocumentModel;
+import ro.sync.ecss.extensions.api.webapp.AuthorOperationWithResult;
+import ro.sync.ecss.extensions.api.webapp.WebappRestSafe;
+
+/**
+ * Operation that checks the next topics of the batch spellcheck and returns the results produced since
+ * the last call.
+ * 
+ * The client polls this operation until the job is done. Each call checks topics for a time budget, on
+ * the request thread, so the topics are read with the credentials of the editing session. The client
+ * can also cancel the job.
+ */
+@WebappRestSafe
+public class GetBatchSpellcheckResultsOperation extends AuthorOperationWithResult {
+
+  /**
+   * Response sent when the job does not exist anymore.
+   */
+  private static final String UNKNOWN_JOB_RESPONSE = "{\"unknownJob\" :true}";
+
+  /**
+   * Argument name for the time budget, in milliseconds, after which no other topic is started.
+   */
+  private static final String TIME_BUDGET_ARGUMENT_NAME = "timeBudgetMs";
+
+  /**
+   * Default time budget, in milliseconds.
+   */
+  private static final int DEFAULT_TIME_BUDGET_MS = 1000;
+
+  /**
+   * Maximum time budget, in milliseconds, so that a poll does not hold a request thread for long.
+   */
+  private static final int MAX_TIME_BUDGET_MS = 5000;
+
+  @Override
+  public String doOperation(AuthorDocumentModel model, ArgumentsMap args) throws AuthorOperationException {
+    EditingSessionContext editingContext = model.getAuthorAccess().getEditorAccess().getEditingContext();
+    BatchSpellcheckJob job = (BatchSpellcheckJob) editingContext.getAttribute(
+        StartBatchSpellcheckOperation.BATCH_JOB_ATTR_NAME);
+    int jobId = GoToNextSpellingErrorOperation.getIntArgument(args, "jobId", -1);
+    if (job == null || job.getId() != jobId) {
+      return UNKNOWN_JOB_RESPONSE;
+    }
+
+    if (GoToNextSpellingErrorOperation.getBooleanArgument(args, "cancel", false)) {
+      job.cancel();
+      editingContext.setAttribute(StartBatchSpellcheckOperation.BATCH_JOB_ATTR_NAME, null);
+    } else {
+      int timeBudgetMs = GoToNextSpellingErrorOperation.getIntArgument(
+          args, TIME_BUDGET_ARGUMENT_NAME, DEFAULT_TIME_BUDGET_MS);
+      job.checkTopics(model.getSpellchecker(), Math.min(timeBudgetMs, MAX_TIME_BUDGET_MS));
+    }
+
+    try {
+      return new ObjectMapper().writeValueAsString(ImmutableMap.of(
+          "results", job.drainResults(),
+          "completed", job.getCompletedCount(),
+          "topicCount", job.getTopicCount(),
+          "done", job.isDone()));
+    } catch (IOException e) {
+      throw new AuthorOperationException(e.getMessage(), e);
+    }
+  }
+}
@@ -1,12 +1,17 @@
 package com.oxygenxml.webapp.plugins.spellcheck;
         
 import java.io.IOException;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.swing.text.BadLocationException;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckExecutor.Priority;
 import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckContext;
 import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckWordInfo;
 
@@ -16,10 +21,7 @@ import ro.sync.ecss.extensions.api.AuthorDocumentController;
 import ro.sync.ecss.extensions.api.AuthorOperationException;
 import ro.sync.ecss.extensions.api.SpellCheckingProblemInfo;
 import ro.sync.ecss.extensions.api.SpellSuggestionsInfo;
-import ro.sync.ecss.extensions.api.access.EditingSessionContext;
 import ro.sync.ecss.extensions.api.node.AuthorDocument;
-import ro.sync.ecss.extensions.api.webapp.AuthorDocumentModel;
-import ro.sync.ecss.extensions.api.webapp.AuthorOperationWithResult;
 import ro.sync.ecss.extensions.api.webapp.WebappRestSafe;
 import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
 
@@ -30,38 +32,86 @@ import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
  */
 @WebappRestSafe
 @Slf4j
-public class GoToNextSpellingErrorOperation extends AuthorOperationWithResult {
+public class GoToNextSpellingErrorOperation extends SpellcheckOperation {
+
+  /**
+   * Response sent when the node is too busy to perform the spellcheck.
+   */
+  static final String REJECTED_RESPONSE = "{\"rejected\" :true}";
+
+  /**
+   * Argument name for the number of problems to return, including the selected one.
+   */
+  static final String WINDOW_SIZE_ARGUMENT_NAME = "windowSize";
+
+  /**
+   * The maximum number of problems returned by a single request.
+   */
+  private static final int MAX_WINDOW_SIZE = 20;
+
+  /**
+   * Argument name for the option to compute the suggestions of the next problem. When <code>false</code>, 
+   * only the suggestions that come for free with the problem are returned and the client asks for the others
+   * separately. The upcoming problems of the window only have the suggestions that come for free.
+   */
+  static final String INCLUDE_SUGGESTIONS_ARGUMENT_NAME = "includeSuggestions";
 
   @Override
-  public String doOperation(AuthorDocumentModel docModel, ArgumentsMap args) 
-      throws AuthorOperationException {
+  protected String perform(SpellcheckEditor editor, ArgumentsMap args) throws AuthorOperationException {
+    return executeAdmitted(() -> findNext(editor, args));
+  }
+
+  /**
+   * Run the work of an operation behind a single interactive admission, so that the whole operation holds
+   * one slot and a rejected operation changes nothing.
+   * 
+   * @param work The work of the operation.
+   * 
+   * @return The result of the work, or {@link #REJECTED_RESPONSE} if the node is too busy.
+   * 
+   * @throws AuthorOperationException If the work fails.
+   */
+  static String executeAdmitted(Callable<String> work) throws AuthorOperationException {
+    try {
+      return SpellcheckExecutor.getInstance().execute(Priority.INTERACTIVE, work);
+    } catch (SpellcheckRejectedException e) {
+      log.warn(e.getMessage());
+      return REJECTED_RESPONSE;
+    }
+  }
+
+  /**
+   * Find and select the next spelling problem. Runs behind the admission of the operation, 
+   * see {@link #executeAdmitted(Callable)}.
+   * 
+   * @param editor The editing session.
+   * @param args The operation arguments.
+   * 
+   * @return The description of the problem as JSON string, or <code>null</code> if there is no problem.
+   * 
+   * @throws AuthorOperationException If the spell-checking fails.
+   */
+  String findNext(SpellcheckEditor editor, ArgumentsMap args) throws AuthorOperationException {
     String result = null;
     try {
-      EditingSessionContext editingContext = docModel.getAuthorAccess().getEditorAccess().getEditingContext();
-      SpellcheckContext spellcheckContext = (SpellcheckContext) editingContext.getAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME);
-      if (spellcheckContext == null) {
-        spellcheckContext = new SpellcheckContext();
-      }
+      // Stored right away, so that the document change listener is removed when the context is cleared.
+      SpellcheckContext spellcheckContext = (SpellcheckContext) editor.getOrCreateSessionAttribute(
+          SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME, SpellcheckContext::new);
+      spellcheckContext.trackDocumentChanges(editor.getDocumentController());
 
       IgnoredWords ignoredWords = IgnoredWords.fromUncheckedArgument(
           args.getArgumentValue("ignoredWords"), spellcheckContext);
-      WebappSpellchecker spellchecker = docModel.getSpellchecker();
+      FoundProblem found = searchNextProblem(editor, args, ignoredWords, spellcheckContext);
       
-      Optional<SpellCheckingProblemInfo> maybeNextProblem = 
-          findNextProblem(docModel, ignoredWords, spellcheckContext);
-      
-      if (maybeNextProblem.isPresent()) {
-        SpellCheckingProblemInfo nextProblem = maybeNextProblem.get();
-        AuthorDocumentController controller = docModel.getAuthorDocumentController();
+      if (found.problem != null) {
+        SpellCheckingProblemInfo nextProblem = found.problem;
         
         // Save informations about the current word
-        spellcheckContext.setCurrentWordInfo(SpellcheckWordInfo.from(nextProblem, controller));
-        editingContext.setAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME, spellcheckContext);
+        spellcheckContext.setCurrentWordInfo(SpellcheckWordInfo.from(nextProblem, editor.getDocumentController()));
         
         // Select the next spelling error.
-        docModel.getSelectionModel().setSelection(nextProblem.getStartOffset(), nextProblem.getEndOffset() + 1);
-        String[] suggestions = findSuggestions(spellchecker, nextProblem);
-        result = getFindResult(nextProblem, suggestions);
+        editor.select(nextProblem.getStartOffset(), nextProblem.getEndOffset() + 1);
+        result = found.result;
       }
 
     } catch (BadLocationException e) {
@@ -70,24 +120,94 @@ public class GoToNextSpellingErrorOperation extends AuthorOperationWithResult {
     return result;
   }
 
+  /**
+   * Search the next problem, with its suggestions and the window of upcoming problems.
+   * 
+   * @param editor The editing session.
+   * @param args The operation arguments.
+   * @param ignoredWords The ignored words.
+   * @param spellcheckContext The spellcheck context.
+   * 
+   * @return The next problem and the result to send to the client.
+   * 
+   * @throws AuthorOperationException If the spell-checking fails.
+   */
+  private FoundProblem searchNextProblem(SpellcheckEditor editor, ArgumentsMap args, 
+      IgnoredWords ignoredWords, SpellcheckContext spellcheckContext) throws AuthorOperationException {
+    WebappSpellchecker spellchecker = editor.getSpellchecker();
+    AuthorDocumentController controller = editor.getDocumentController();
+    // Read before the scan, so that an edit made during the scan makes the client discard the window.
+    int documentVersion = spellcheckContext.getDocumentVersion();
+    
+    int windowSize = getIntArgument(args, WINDOW_SIZE_ARGUMENT_NAME, 1);
+    int problemCount = Math.max(1, Math.min(windowSize, MAX_WINDOW_SIZE));
+    // A single walk of the document finds the next problem and the upcoming ones.
+    List<SpellCheckingProblemInfo> problems = findNextProblems(spellchecker, controller, 
+        editor.getCaretOffset(), ignoredWords, spellcheckContext, problemCount);
+    if (problems.isEmpty()) {
+      return new FoundProblem(null, null);
+    }
+    
+    SpellCheckingProblemInfo nextProblem = problems.get(0);
+    boolean includeSuggestions = getBooleanArgument(args, INCLUDE_SUGGESTIONS_ARGUMENT_NAME, true);
+    String[] suggestions = includeSuggestions 
+        ? getSuggestions(spellchecker, nextProblem, spellcheckContext)
+        : getProvidedSuggestions(nextProblem, spellcheckContext);
+    
+    List<Map<String, Object>> upcomingProblems = null;
+    if (windowSize > 1) {
+      upcomingProblems = describeProblems(problems.subList(1, problems.size()), spellcheckContext);
+    }
+    return new FoundProblem(nextProblem, getFindResult(nextProblem, suggestions, 
+        documentVersion, upcomingProblems));
+  }
+
+  /**
+   * The result of a search for the next problem.
+   */
+  private static class FoundProblem {
+    /**
+     * The next problem, <code>null</code> if there is none.
+     */
+    private final SpellCheckingProblemInfo problem;
+    /**
+     * The result sent to the client.
+     */
+    private final String result;
+
+    /**
+     * Constructor.
+     * 
+     * @param problem The next problem, <code>null</code> if there is none.
+     * @param result The result sent to the client.
+     */
+    private FoundProblem(SpellCheckingProblemInfo problem, String result) {
+      this.problem = problem;
+      this.result = result;
+    }
+  }
+
   /**
    * Get the result of finding next problem.
    * 
    * @param nextProblem Next problem
    * @param suggestions Suggestion
+   * @param documentVersion The version of the document the problems were found in.
+   * @param upcomingProblems The problems that follow the next problem, or <code>null</code> if they were not requested.
    * @return The find operation result as JSON string.
    * @throws AuthorOperationException If the serialization fails.
    */
-  private String getFindResult(SpellCheckingProblemInfo nextProblem, String[] suggestions) throws AuthorOperationException {
+  private String getFindResult(SpellCheckingProblemInfo nextProblem, String[] suggestions, 
+      int documentVersion, List<Map<String, Object>> upcomingProblems) throws AuthorOperationException {
     String result = null;
     try {
+      Map<String, Object> findResult = new LinkedHashMap<>(describeProblem(nextProblem, suggestions));
+      if (upcomingProblems != null) {
+        findResult.put("version", documentVersion);
+        findResult.put("window", upcomingProblems);
+      }
       ObjectMapper objectMapper = new ObjectMapper();
-      result = objectMapper.writeValueAsString(ImmutableMap.of(
-          "word", nextProblem.getWord(),
-          "language", nextProblem.getLanguageIsoName(),
-          "startOffset", nextProblem.getStartOffset(),
-          "endOffset", nextProblem.getEndOffset(),
-          "suggestions", suggestions));
+      result = objectMapper.writeValueAsString(findResult);
     } catch (IOException e) {
       throw new AuthorOperationException(e.getMessage(), e);
     }
@@ -95,23 +215,109 @@ public class GoToNextSpellingErrorOperation extends AuthorOperationWithResult {
   }
 
   /**
-   * Save the position of the current spelling error.
+   * Describe a problem for the client.
+   * 
+   * @param problem The problem.
+   * @param suggestions The suggestions for the problem, <code>null</code> if they were not computed.
+   * @return The problem description.
+   */
+  private static Map<String, Object> describeProblem(SpellCheckingProblemInfo problem, String[] suggestions) {
+    if (suggestions == null) {
+      return ImmutableMap.of(
+          "word", problem.getWord(),
+          "language", problem.getLanguageIsoName(),
+          "startOffset", problem.getStartOffset(),
+          "endOffset", problem.getEndOffset());
+    }
+    return ImmutableMap.of(
+        "word", problem.getWord(),
+        "language", problem.getLanguageIsoName(),
+        "startOffset", problem.getStartOffset(),
+        "endOffset", problem.getEndOffset(),
+        "suggestions", suggestions);
+  }
+
+  /**
+   * Describe the upcoming problems for the client, with the suggestions provided with them.
+   * 
+   * The suggestions are not computed: the user may never reach these problems, and the client asks for 
+   * the suggestions of a problem when it displays it.
+   * 
+   * @param problems The problems.
+   * @param spellcheckContext The spellcheck context, that caches the suggestions.
+   * 
+   * @return The descriptions of the problems.
+   */
+  private static List<Map<String, Object>> describeProblems(List<SpellCheckingProblemInfo> problems, 
+      SpellcheckContext spellcheckContext) {
+    List<Map<String, Object>> descriptions = new ArrayList<>();
+    for (SpellCheckingProblemInfo problem : problems) {
+      descriptions.add(describeProblem(problem, getProvidedSuggestions(problem, spellcheckContext)));
+    }
+    return descriptions;
+  }
+
+  /**
+   * Get an integer argument.
+   * 
+   * @param args The operation arguments.
+   * @param name The argument name.
+   * @param defaultValue The value to use if the argument is missing or invalid.
+   * @return The argument value.
+   */
+  static int getIntArgument(ArgumentsMap args, String name, int defaultValue) {
+    int value = defaultValue;
+    Object argValue = args.getArgumentValue(name);
+    if (argValue instanceof Number) {
+      value = ((Number) argValue).intValue();
+    } else if (argValue instanceof String) {
+      try {
+        value = Integer.parseInt((String) argValue);
+      } catch (NumberFormatException e) {
+        log.warn("Invalid value for " + name + ": " + argValue);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Get a boolean argument.
+   * 
+   * @param args The operation arguments.
+   * @param name The argument name.
+   * @param defaultValue The value to use if the argument is missing.
+   * @return The argument value.
+   */
+  static boolean getBooleanArgument(ArgumentsMap args, String name, boolean defaultValue) {
+    boolean value = defaultValue;
+    Object argValue = args.getArgumentValue(name);
+    if (argValue instanceof Boolean) {
+      value = (Boolean) argValue;
+    }
+    return value;
+  }
+
+  /**
+   * Find the next spelling problems, wrapping around at the end of the document.
    * 
-   * @param docModel The document model.
-   * rather than the last position marked.
+   * The document is walked once: the chunks that contain the next problem also yield the upcoming ones.
+   * 
+   * @param spellchecker The spellchecker.
+   * @param controller The document controller.
+   * @param caretOffset The caret offset, used when there is no current word.
    * @param ignoredWords The ignored words.
    * @param spellcheckContext Spellcheck context.
+   * @param count The maximum number of problems to find.
    * 
-   * @return Info about the next spell-checking problem, if any.
+   * @return The next problems, in the order in which they are visited.
    * @throws AuthorOperationException If the spell-checking fails.
    */
-  private Optional<SpellCheckingProblemInfo> findNextProblem(AuthorDocumentModel docModel, 
-      IgnoredWords ignoredWords, SpellcheckContext spellcheckContext) throws AuthorOperationException {
-    WebappSpellchecker spellchecker = docModel.getSpellchecker();
-    AuthorDocumentController controller = docModel.getAuthorDocumentController();
+  private static List<SpellCheckingProblemInfo> findNextProblems(WebappSpellchecker spellchecker, 
+      AuthorDocumentController controller, int caretOffset,
+      IgnoredWords ignoredWords, SpellcheckContext spellcheckContext, int count) throws AuthorOperationException {
     AuthorDocument document = controller.getAuthorDocumentNode();
     
-    int startOffset = docModel.getSelectionModel().getCaretOffset();
+    int startOffset = caretOffset;
     SpellcheckWordInfo currentWord = spellcheckContext.getCurrentWord();
     if (currentWord != null) {
       startOffset = currentWord.getEndPosition().getOffset();
@@ -122,13 +328,52 @@ public class GoToNextSpellingErrorOperation extends AuthorOperationWithResult {
         ignoredWords,
         document.getEndOffset());
     
-    Optional<SpellCheckingProblemInfo> problemInfo = 
-        spellcheckPerformer.runSpellcheck(startOffset, document.getEndOffset(), 
-            controller);
-    if (!problemInfo.isPresent()) {
-      problemInfo = spellcheckPerformer.runSpellcheck(0, startOffset, controller);
+    List<SpellCheckingProblemInfo> problems = 
+        spellcheckPerformer.runSpellcheck(startOffset, document.getEndOffset(), controller, count);
+    if (problems.isEmpty()) {
+      // The text after the start offset has no problems, so the window cannot go past it either.
+      problems = spellcheckPerformer.runSpellcheck(0, startOffset, controller, count);
+    }
+    return problems;
+  }
+
+  /**
+   * Get the suggestions for a problem, using the ones cached in the spellcheck context when available.
+   * 
+   * @param spellchecker The spellchecker.
+   * @param problem The spelling problem.
+   * @param spellcheckContext The spellcheck context.
+   * 
+   * @return The list of suggestions.
+   * 
+   * @throws AuthorOperationException
+   */
+  static String[] getSuggestions(WebappSpellchecker spellchecker, SpellCheckingProblemInfo problem,
+      SpellcheckContext spellcheckContext) throws AuthorOperationException {
+    String[] suggestions = spellcheckContext.getCachedSuggestions(problem.getWord(), problem.getLanguageIsoName());
+    if (suggestions == null) {
+      suggestions = findSuggestions(spellchecker, problem);
+      spellcheckContext.cacheSuggestions(problem.getWord(), problem.getLanguageIsoName(), suggestions);
     }
-    return problemInfo;
+    return suggestions;
+  }
+
+  /**
+   * Get the suggestions that the spellchecker provided together with the problem, without computing them.
+   * 
+   * @param problem The spelling problem.
+   * @param spellcheckContext The spellcheck context, that caches the suggestions.
+   * 
+   * @return The list of suggestions, or <code>null</code> if they were not provided.
+   */
+  private static String[] getProvidedSuggestions(SpellCheckingProblemInfo problem, 
+      SpellcheckContext spellcheckContext) {
+    String[] suggestions = null;
+    if (problem.getSuggestions() != null) {
+      suggestions = problem.getSuggestions().toArray(new String[0]);
+      spellcheckContext.cacheSuggestions(problem.getWord(), problem.getLanguageIsoName(), suggestions);
+    }
+    return suggestions;
   }
 
   /**
@@ -137,11 +382,11 @@ public class GoToNextSpellingErrorOperation extends AuthorOperationWithResult {
    * @param spellchecker The spellchecker.
    * @param nextProblem The spelling problem.
    * 
-   * @return The list of suggestions.
+   * @return The list of suggestions, <code>null</code> if the spellchecker has none.
    * 
    * @throws AuthorOperationException
    */
-  private String[] findSuggestions(WebappSpellchecker spellchecker, SpellCheckingProblemInfo nextProblem)
+  static String[] findSuggestions(WebappSpellchecker spellchecker, SpellCheckingProblemInfo nextProblem)
       throws AuthorOperationException {
     String[] suggestions;
     // Custom spell checker may provide suggestions with the problem info.
@@ -151,7 +396,8 @@ public class GoToNextSpellingErrorOperation extends AuthorOperationWithResult {
     try {
       SpellSuggestionsInfo suggestionInfo = 
           spellchecker.getSuggestionsForWordAtPosition(nextProblem.getStartOffset() + 1);
-      suggestions = suggestionInfo.getSuggestions();
+      // No suggestions info when there is no word at the offset.
+      suggestions = suggestionInfo != null ? suggestionInfo.getSuggestions() : null;
     } catch (Exception e) {
       throw new AuthorOperationException(e.getMessage(), e);
     }
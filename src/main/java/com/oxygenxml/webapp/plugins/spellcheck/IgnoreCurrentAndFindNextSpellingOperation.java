@@ -2,9 +2,6 @@ package com.oxygenxml.webapp.plugins.spellcheck;
 
 import ro.sync.ecss.extensions.api.ArgumentsMap;
 import ro.sync.ecss.extensions.api.AuthorOperationException;
-import ro.sync.ecss.extensions.api.access.EditingSessionContext;
-import ro.sync.ecss.extensions.api.webapp.AuthorDocumentModel;
-import ro.sync.ecss.extensions.api.webapp.AuthorOperationWithResult;
 import ro.sync.ecss.extensions.api.webapp.WebappRestSafe;
 
 import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckContext;
@@ -16,7 +13,7 @@ import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckWordInfo;
  * @author mihaela
  */
 @WebappRestSafe
-public class IgnoreCurrentAndFindNextSpellingOperation extends AuthorOperationWithResult {
+public class IgnoreCurrentAndFindNextSpellingOperation extends SpellcheckOperation {
   
   /**
    * Attribute name for ignored words. Necessary for finding the next spellcheck problem
@@ -24,23 +21,25 @@ public class IgnoreCurrentAndFindNextSpellingOperation extends AuthorOperationWi
   public static final String IGNORED_WORDS_ARGUMENT_NAME = "ignoredWords";
   
   @Override
-  public String doOperation(AuthorDocumentModel model, ArgumentsMap args) throws AuthorOperationException {
-    SpellcheckWordInfo currentWord = ignoreCurrentWord(model);
-    model.getSelectionModel().moveTo(currentWord.getStartPosition().getOffset() + currentWord.getWord().length());
+  protected String perform(SpellcheckEditor editor, ArgumentsMap args) throws AuthorOperationException {
+    // Admitted before the word is ignored, so that a rejected request leaves the session unchanged.
+    return GoToNextSpellingErrorOperation.executeAdmitted(() -> {
+      SpellcheckWordInfo currentWord = ignoreCurrentWord(editor);
+      editor.moveCaretTo(currentWord.getStartPosition().getOffset() + currentWord.getWord().length());
 
-    return new GoToNextSpellingErrorOperation().doOperation(model, args);
+      return new GoToNextSpellingErrorOperation().findNext(editor, args);
+    });
   }
   
   /**
    * Add current word to ignored words.
    * 
-   * @param model Author document model.
+   * @param editor The editing session.
    * 
    * @return The ignored word.
    */
-  public SpellcheckWordInfo ignoreCurrentWord(AuthorDocumentModel model) {
-    EditingSessionContext editingContext = model.getAuthorAccess().getEditorAccess().getEditingContext();
-    SpellcheckContext spellcheckContext = (SpellcheckContext) editingContext.getAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME);
+  public SpellcheckWordInfo ignoreCurrentWord(SpellcheckEditor editor) {
+    SpellcheckContext spellcheckContext = (SpellcheckContext) editor.getSessionAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME);
     
     spellcheckContext.ignoreCurrentWord();
     return spellcheckContext.getCurrentWord();
@@ -46,10 +46,23 @@ public class IgnoredWords {
    * @throws BadLocationException 
    */
   public boolean isIgnored(SpellCheckingProblemInfo problem, AuthorDocumentController controller) throws BadLocationException {
-    String canonicalLang = getCanonicalLanguage(problem.getLanguageIsoName());
+    return isIgnoredWord(problem.getLanguageIsoName(), problem.getWord()) 
+        || spellcheckContext.isIgnored(problem, controller);
+  }
+  
+  /**
+   * Checks if all the occurrences of a word are ignored for a particular language.
+   * 
+   * @param language The language.
+   * @param word The word.
+   * 
+   * @return <code>true</code> if the word is ignored.
+   */
+  public boolean isIgnoredWord(String language, String word) {
+    String canonicalLang = getCanonicalLanguage(language);
     List<?> ignoredWordsForLang = 
         ingoredWordsTyped.getOrDefault(canonicalLang, Collections.emptyList());
-    return ignoredWordsForLang.contains(problem.getWord()) || spellcheckContext.isIgnored(problem, controller);
+    return ignoredWordsForLang.contains(word);
   }
   
   /**
@@ -1,15 +1,25 @@
 package com.oxygenxml.webapp.plugins.spellcheck;
 
+import java.io.File;
+
+import com.oxygenxml.webapp.plugins.spellcheck.dictionary.CompiledDictionaryEngine;
+
 import ro.sync.exml.plugin.PluginDescriptor;
 
 /**
  * Dummy class required in order to be able to include an operation.
  * 
+ * It also loads the compiled dictionaries shipped with the plugin and starts the periodic log of the
+ * spellcheck metrics.
+ * 
  * @author ctalau
  */
 public class Plugin extends ro.sync.exml.plugin.Plugin {
 
   public Plugin(PluginDescriptor descriptor) {
     super(descriptor);
+    CompiledDictionaryEngine.getInstance().loadDefaultDictionaries(
+        new File(descriptor.getBaseDir(), "dictionaries").toPath());
+    SpellcheckMetrics.getInstance().startPeriodicLogging();
   }
 }
@@ -10,11 +10,7 @@ import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckWordInfo;
 import lombok.extern.slf4j.Slf4j;
 import ro.sync.ecss.extensions.api.ArgumentsMap;
 import ro.sync.ecss.extensions.api.AuthorOperationException;
-import ro.sync.ecss.extensions.api.access.EditingSessionContext;
-import ro.sync.ecss.extensions.api.webapp.AuthorDocumentModel;
-import ro.sync.ecss.extensions.api.webapp.AuthorOperationWithResult;
 import ro.sync.ecss.extensions.api.webapp.WebappRestSafe;
-import ro.sync.ecss.extensions.api.webapp.findreplace.WebappFindOptions;
 
 /**
  * Replace current spelling error and find next problem.
@@ -23,7 +19,7 @@ import ro.sync.ecss.extensions.api.webapp.findreplace.WebappFindOptions;
  */
 @WebappRestSafe
 @Slf4j
-public class ReplaceAndFindNextSpellingOperation extends AuthorOperationWithResult {
+public class ReplaceAndFindNextSpellingOperation extends SpellcheckOperation {
 
   /**
    * Attribute name for the "replace all" option.
@@ -46,45 +42,69 @@ public class ReplaceAndFindNextSpellingOperation extends AuthorOperationWithResu
   private static final String WORD_CHANGED_RESPONSE = "{\"wordChanged\" :true}";
   
 
+  /**
+   * Replace the current spelling error and find the next one.
+   * 
+   * @param editor The editing session.
+   * @param args The operation arguments.
+   * 
+   * @return The description of the next problem as JSON string.
+   * 
+   * @throws AuthorOperationException If the spell-checking fails.
+   */
   @Override
-  public String doOperation(AuthorDocumentModel model, ArgumentsMap args) throws AuthorOperationException {
+  protected String perform(SpellcheckEditor editor, ArgumentsMap args) throws AuthorOperationException {
+    // Admitted before the replace, so that a rejected request leaves the document unchanged.
+    return GoToNextSpellingErrorOperation.executeAdmitted(() -> replaceAndFindNext(editor, args));
+  }
+
+  /**
+   * Replace the current spelling error and find the next one, once admitted.
+   * 
+   * @param editor The editing session.
+   * @param args The operation arguments.
+   * 
+   * @return The description of the next problem as JSON string.
+   * 
+   * @throws AuthorOperationException If the spell-checking fails.
+   */
+  private String replaceAndFindNext(SpellcheckEditor editor, ArgumentsMap args) throws AuthorOperationException {
     String newWord = (String)args.getArgumentValue(NEW_WORD_ARGUMENT_NAME);
     
-    EditingSessionContext editingContext = model.getAuthorAccess().getEditorAccess().getEditingContext();
-    SpellcheckContext spellcheckContext = (SpellcheckContext) editingContext.getAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME);
+    SpellcheckContext spellcheckContext = (SpellcheckContext) editor.getSessionAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME);
     SpellcheckWordInfo currentWordInfo = spellcheckContext.getCurrentWord();
     
     if (isReplaceAll(args)) {
-      replaceAll(model, currentWordInfo.getWord(), newWord);      
+      editor.replaceAll(currentWordInfo.getWord(), newWord);      
     } else {
       Position startPosition = currentWordInfo.getStartPosition();
       Position endPosition = currentWordInfo.getEndPosition();
 
-      String oldWord = getOldWord(model, startPosition, endPosition);
+      String oldWord = getOldWord(editor, startPosition, endPosition);
       if (!currentWordInfo.getWord().equals(oldWord)) {
         return WORD_CHANGED_RESPONSE;
       }
       
-      replace(model, newWord, startPosition, endPosition);
+      replace(editor, newWord, startPosition, endPosition);
     } 
 
-    return new GoToNextSpellingErrorOperation().doOperation(model, args);
+    return new GoToNextSpellingErrorOperation().findNext(editor, args);
   }
 
   /**
    * Get the old word.
    * 
-   * @param model The Author document model.
+   * @param editor The editing session.
    * @param startPosition The word start position.
    * @param endPosition The word end position.
    * @return The old word between the given positions.
    */
-  private String getOldWord(AuthorDocumentModel model, Position startPosition,
+  private String getOldWord(SpellcheckEditor editor, Position startPosition,
       Position endPosition) {
     String oldWord = null;
     try {
       Segment chars = new Segment();
-      model.getAuthorDocumentController().getChars(startPosition.getOffset(), 
+      editor.getDocumentController().getChars(startPosition.getOffset(), 
           endPosition.getOffset() - startPosition.getOffset() + 1, chars);
       oldWord = chars.toString();
     } catch (BadLocationException e) {
@@ -112,34 +132,18 @@ public class ReplaceAndFindNextSpellingOperation extends AuthorOperationWithResu
   /**
    * Replace word.
    * 
-   * @param model Author document model.
+   * @param editor The editing session.
    * @param newWord Word to replace with.
    * @param startPosition The start position of the last spelling error.
    * @param endPosition The end position of the last spelling error.
    */
-  private void replace(AuthorDocumentModel model, String newWord, 
+  private void replace(SpellcheckEditor editor, String newWord, 
       Position startPosition, Position endPosition) {
     int startOffset = startPosition.getOffset();
     int endOffset = endPosition.getOffset();
 
-    model.getAuthorDocumentController().delete(startOffset, endOffset);
-    model.getAuthorDocumentController().insertText(startOffset, newWord);
-    model.getSelectionModel().moveTo(startOffset + newWord.length());
-  }
-
-  /**
-   * Replace all occurrences of a word.
-   * 
-   * @param model Author document model.
-   * @param oldWord Word to be replaced.
-   * @param newWord Word to replace with.
-   * 
-   * @throws AuthorOperationException
-   */
-  private void replaceAll(AuthorDocumentModel model, String oldWord, String newWord) {
-    WebappFindOptions options = new WebappFindOptions();
-    options.setMatchCase(true);
-    options.setWholeWords(true);
-    model.getFindReplaceSupport().replaceAll(oldWord, newWord, options);
+    editor.getDocumentController().delete(startOffset, endOffset);
+    editor.getDocumentController().insertText(startOffset, newWord);
+    editor.moveCaretTo(startOffset + newWord.length());
   }
 }
@@ -0,0 +1,99 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
+
+import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckContext;
+import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckWordInfo;
+
+import ro.sync.ecss.extensions.api.ArgumentsMap;
+import ro.sync.ecss.extensions.api.AuthorDocumentController;
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+import ro.sync.ecss.extensions.api.webapp.WebappRestSafe;
+
+/**
+ * Select a spelling problem that the client already received in a window of upcoming problems.
+ * 
+ * No spellchecking is performed. If the document changed since the window was computed, 
+ * the client is told to ask for a new window.
+ */
+@WebappRestSafe
+public class SelectSpellingProblemOperation extends SpellcheckOperation {
+
+  /**
+   * Argument name for the "ignore current problem" option.
+   */
+  private static final String IGNORE_CURRENT_ARGUMENT_NAME = "ignoreCurrent";
+
+  /**
+   * Argument name for the document version of the window.
+   */
+  private static final String VERSION_ARGUMENT_NAME = "version";
+
+  /**
+   * Response sent when the window of problems is no longer valid.
+   */
+  private static final String STALE_RESPONSE = "{\"stale\" :true}";
+
+  /**
+   * Select the problem given in the arguments.
+   * 
+   * @param editor The editing session.
+   * @param args The operation arguments.
+   * 
+   * @return <code>null</code>, or the stale response if the problem is no longer valid.
+   * 
+   * @throws AuthorOperationException If the problem cannot be selected.
+   */
+  @Override
+  protected String perform(SpellcheckEditor editor, ArgumentsMap args) throws AuthorOperationException {
+    SpellcheckContext spellcheckContext = (SpellcheckContext) editor.getSessionAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME);
+    int version = GoToNextSpellingErrorOperation.getIntArgument(args, VERSION_ARGUMENT_NAME, -1);
+    if (spellcheckContext == null || spellcheckContext.getDocumentVersion() != version) {
+      return STALE_RESPONSE;
+    }
+
+    int startOffset = GoToNextSpellingErrorOperation.getIntArgument(args, "startOffset", -1);
+    int endOffset = GoToNextSpellingErrorOperation.getIntArgument(args, "endOffset", -1);
+    String word = (String) args.getArgumentValue("word");
+    AuthorDocumentController controller = editor.getDocumentController();
+    try {
+      if (word == null || startOffset < 0 || endOffset < startOffset || !word.equals(getWord(controller, startOffset, endOffset))) {
+        return STALE_RESPONSE;
+      }
+
+      if (Boolean.TRUE.equals(args.getArgumentValue(IGNORE_CURRENT_ARGUMENT_NAME)) 
+          && spellcheckContext.getCurrentWord() != null) {
+        spellcheckContext.ignoreCurrentWord();
+      }
+
+      SpellcheckWordInfo wordInfo = new SpellcheckWordInfo();
+      wordInfo.setStartPosition(controller.createPositionInContent(startOffset));
+      wordInfo.setEndPosition(controller.createPositionInContent(endOffset));
+      wordInfo.setWord(word);
+      wordInfo.setLanguageIsoName((String) args.getArgumentValue("language"));
+      spellcheckContext.setCurrentWordInfo(wordInfo);
+    } catch (BadLocationException e) {
+      throw new AuthorOperationException(e.getMessage(), e);
+    }
+
+    editor.select(startOffset, endOffset + 1);
+    return null;
+  }
+
+  /**
+   * Get the word between two offsets.
+   * 
+   * @param controller The document controller.
+   * @param startOffset The start offset.
+   * @param endOffset The end offset, inclusive.
+   * @return The word.
+   * @throws BadLocationException If the offsets are not in the document.
+   */
+  static String getWord(AuthorDocumentController controller, int startOffset, int endOffset) 
+      throws BadLocationException {
+    Segment chars = new Segment();
+    controller.getChars(startOffset, endOffset - startOffset + 1, chars);
+    return chars.toString();
+  }
+}
@@ -0,0 +1,81 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import java.util.function.Supplier;
+
+import ro.sync.ecss.extensions.api.AuthorDocumentController;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+
+/**
+ * The parts of an editing session used by the spellcheck operations.
+ *
+ * In Web Author it is backed by the document model of the operation. The load and replay tools
+ * implement it over in-memory documents, to drive the same operations offline.
+ */
+public interface SpellcheckEditor {
+
+  /**
+   * @return The document controller.
+   */
+  AuthorDocumentController getDocumentController();
+
+  /**
+   * @return The spellchecker of the document.
+   */
+  WebappSpellchecker getSpellchecker();
+
+  /**
+   * @return The caret offset.
+   */
+  int getCaretOffset();
+
+  /**
+   * Select an interval of the document.
+   *
+   * @param startOffset The start offset.
+   * @param endOffset The end offset, exclusive.
+   */
+  void select(int startOffset, int endOffset);
+
+  /**
+   * Move the caret.
+   *
+   * @param offset The new caret offset.
+   */
+  void moveCaretTo(int offset);
+
+  /**
+   * Replace all the occurrences of a word, as a whole word and matching the case.
+   *
+   * @param oldWord The word to replace.
+   * @param newWord The word to replace with.
+   */
+  void replaceAll(String oldWord, String newWord);
+
+  /**
+   * Get an attribute of the editing session.
+   *
+   * @param name The name of the attribute.
+   *
+   * @return The value of the attribute, <code>null</code> if not set.
+   */
+  Object getSessionAttribute(String name);
+
+  /**
+   * Set an attribute of the editing session.
+   *
+   * @param name The name of the attribute.
+   * @param value The value of the attribute, <code>null</code> to remove it.
+   */
+  void setSessionAttribute(String name, Object value);
+
+  /**
+   * Get an attribute of the editing session, setting it first if missing.
+   * Concurrent requests of the same session get the same value.
+   *
+   * @param name The name of the attribute.
+   * @param factory Creates the value of the attribute if missing.
+   *
+   * @return The value of the attribute.
+   */
+  Object getOrCreateSessionAttribute(String name, Supplier<Object> factory);
+}
@@ -0,0 +1,198 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+
+/**
+ * Node-wide executor for the spellcheck work.
+ *
+ * The number of concurrent engine calls is limited for the whole node. Some of the slots are reserved
+ * for interactive work so that background work cannot starve the users that navigate between problems.
+ * When no slot becomes available in time, the work is rejected instead of being queued.
+ *
+ * All the work runs on the request thread, behind the admission control: moving it to another thread
+ * would not free the servlet thread, which would still wait for the result, and the work needs the
+ * editing session of the request. Even the background work, like the batch spellcheck, runs on the
+ * threads of the requests that poll for its results. An interactive operation takes a single slot for all
+ * its work, so that it is admitted or rejected as a whole, before it changes the document.
+ *
+ * The executor is configured using the following system properties:
+ * <ul>
+ * <li><code>com.oxygenxml.webapp.plugins.spellcheck.maxConcurrentChecks</code> - the maximum number
+ * of concurrent spellcheck tasks. Defaults to the number of processors.</li>
+ * <li><code>com.oxygenxml.webapp.plugins.spellcheck.reservedInteractiveChecks</code> - the number of
+ * slots that only interactive work can use.</li>
+ * <li><code>com.oxygenxml.webapp.plugins.spellcheck.interactiveAdmissionTimeoutMs</code> - how long
+ * interactive work waits for a slot before being rejected. Defaults to 150 ms, since the dialog
+ * tells the user to retry instead of leaving them waiting.</li>
+ * <li><code>com.oxygenxml.webapp.plugins.spellcheck.backgroundAdmissionTimeoutMs</code> - how long
+ * background work waits for a slot before being rejected.</li>
+ * </ul>
+ */
+@Slf4j
+public class SpellcheckExecutor {
+
+  /**
+   * The priority of the spellcheck work.
+   */
+  public enum Priority {
+    /**
+     * Work that a user waits for, e.g. "Find next".
+     */
+    INTERACTIVE,
+    /**
+     * Work that runs in the background, e.g. batch checking.
+     */
+    BACKGROUND
+  }
+
+  /**
+   * Prefix of the system properties used to configure the plugin.
+   */
+  public static final String PROPERTY_PREFIX = "com.oxygenxml.webapp.plugins.spellcheck.";
+
+  /**
+   * The shared instance.
+   */
+  private static final SpellcheckExecutor INSTANCE = new SpellcheckExecutor(
+      Integer.getInteger(PROPERTY_PREFIX + "maxConcurrentChecks",
+          Runtime.getRuntime().availableProcessors()),
+      Integer.getInteger(PROPERTY_PREFIX + "reservedInteractiveChecks", -1),
+      Long.getLong(PROPERTY_PREFIX + "interactiveAdmissionTimeoutMs", 150),
+      Long.getLong(PROPERTY_PREFIX + "backgroundAdmissionTimeoutMs", 0));
+
+  /**
+   * Slots for all the spellcheck work.
+   */
+  private final Semaphore slots;
+
+  /**
+   * Slots that background work can use.
+   */
+  private final Semaphore backgroundSlots;
+
+  /**
+   * How long interactive work waits for a slot.
+   */
+  private final long interactiveAdmissionTimeoutMs;
+
+  /**
+   * How long background work waits for a slot.
+   */
+  private final long backgroundAdmissionTimeoutMs;
+
+  /**
+   * Number of rejected tasks.
+   */
+  private final AtomicInteger rejectedCount = new AtomicInteger();
+
+  /**
+   * Constructor.
+   *
+   * @param maxConcurrentChecks The maximum number of concurrent tasks.
+   * @param reservedInteractiveChecks The number of slots reserved for interactive work,
+   * or a negative value to use a quarter of the slots.
+   * @param interactiveAdmissionTimeoutMs How long interactive work waits for a slot.
+   * @param backgroundAdmissionTimeoutMs How long background work waits for a slot.
+   */
+  SpellcheckExecutor(int maxConcurrentChecks, int reservedInteractiveChecks,
+      long interactiveAdmissionTimeoutMs, long backgroundAdmissionTimeoutMs) {
+    int maxChecks = Math.max(1, maxConcurrentChecks);
+    int reserved = reservedInteractiveChecks < 0 ? maxChecks / 4 : reservedInteractiveChecks;
+    reserved = Math.min(reserved, maxChecks - 1);
+
+    this.slots = new Semaphore(maxChecks, true);
+    this.backgroundSlots = new Semaphore(maxChecks - reserved, true);
+    this.interactiveAdmissionTimeoutMs = interactiveAdmissionTimeoutMs;
+    this.backgroundAdmissionTimeoutMs = backgroundAdmissionTimeoutMs;
+    log.debug("Spellcheck executor with " + maxChecks + " slots, " + reserved + " reserved for interactive work");
+  }
+
+  /**
+   * @return The node-wide executor.
+   */
+  public static SpellcheckExecutor getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Runs the given work on the current thread, once a slot is available.
+   *
+   * @param priority The priority of the work.
+   * @param task The work.
+   *
+   * @return The result of the work.
+   *
+   * @throws SpellcheckRejectedException If the node is overloaded.
+   * @throws AuthorOperationException If the work fails.
+   */
+  public <T> T execute(Priority priority, Callable<T> task) throws AuthorOperationException {
+    acquireSlot(priority);
+    try {
+      return task.call();
+    } catch (AuthorOperationException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new AuthorOperationException(e.getMessage(), e);
+    } finally {
+      releaseSlot(priority);
+    }
+  }
+
+  /**
+   * Acquire a slot for some work.
+   *
+   * @param priority The priority of the work.
+   *
+   * @throws SpellcheckRejectedException If no slot became available in time.
+   */
+  private void acquireSlot(Priority priority) throws AuthorOperationException {
+    try {
+      boolean acquired;
+      if (priority == Priority.BACKGROUND) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backgroundAdmissionTimeoutMs);
+        acquired = backgroundSlots.tryAcquire(backgroundAdmissionTimeoutMs, TimeUnit.MILLISECONDS);
+        if (acquired) {
+          acquired = slots.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+          if (!acquired) {
+            backgroundSlots.release();
+          }
+        }
+      } else {
+        acquired = slots.tryAcquire(interactiveAdmissionTimeoutMs, TimeUnit.MILLISECONDS);
+      }
+
+      if (!acquired) {
+        rejectedCount.incrementAndGet();
+        throw new SpellcheckRejectedException("Too many concurrent spellcheck requests");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AuthorOperationException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Release the slot used by some work.
+   *
+   * @param priority The priority of the work.
+   */
+  private void releaseSlot(Priority priority) {
+    slots.release();
+    if (priority == Priority.BACKGROUND) {
+      backgroundSlots.release();
+    }
+  }
+
+  /**
+   * @return The number of tasks rejected because the node was overloaded.
+   */
+  public int getRejectedCount() {
+    return rejectedCount.get();
+  }
+}
@@ -0,0 +1,211 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Node-wide counters of the spellcheck work.
+ *
+ * The counters are logged periodically, at the INFO level, when they changed since the last log. The
+ * interval is configured using the <code>com.oxygenxml.webapp.plugins.spellcheck.metricsLogIntervalSec</code>
+ * system property, 300 by default. Set it to 0 to disable the log.
+ */
+@Slf4j
+public class SpellcheckMetrics {
+
+  /**
+   * The default interval of the metrics log, in seconds.
+   */
+  private static final long DEFAULT_LOG_INTERVAL_SEC = 300;
+
+  /**
+   * The shared instance.
+   */
+  private static final SpellcheckMetrics INSTANCE = new SpellcheckMetrics();
+
+  /**
+   * Number of characters extracted from the documents and sent to the spellchecker.
+   */
+  private final AtomicLong extractedChars = new AtomicLong();
+
+  /**
+   * Number of text descriptors sent to the spellchecker.
+   */
+  private final AtomicLong textDescriptors = new AtomicLong();
+
+  /**
+   * Number of text chunks whose problems were found in the result cache.
+   */
+  private final AtomicLong resultCacheHits = new AtomicLong();
+
+  /**
+   * Number of text chunks whose problems were not found in the result cache.
+   */
+  private final AtomicLong resultCacheMisses = new AtomicLong();
+
+  /**
+   * Number of characters checked in process with the compiled dictionaries.
+   */
+  private final AtomicLong compiledDictionaryChars = new AtomicLong();
+
+  /**
+   * Number of words not found in the compiled dictionaries, sent to the host spellchecker.
+   */
+  private final AtomicLong compiledDictionaryMisses = new AtomicLong();
+
+  /**
+   * The counters logged last, to skip the log when nothing changed.
+   */
+  private String lastLoggedMetrics;
+
+  /**
+   * Runs the periodic log, <code>null</code> until it is started.
+   */
+  private ScheduledExecutorService logScheduler;
+
+  /**
+   * @return The node-wide metrics.
+   */
+  public static SpellcheckMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Record a chunk of text extracted for spellchecking.
+   *
+   * @param chars The number of characters.
+   * @param descriptors The number of text descriptors.
+   */
+  public void recordExtractedText(int chars, int descriptors) {
+    extractedChars.addAndGet(chars);
+    textDescriptors.addAndGet(descriptors);
+  }
+
+  /**
+   * @return The number of characters extracted from the documents and sent to the spellchecker.
+   */
+  public long getExtractedChars() {
+    return extractedChars.get();
+  }
+
+  /**
+   * @return The number of text descriptors sent to the spellchecker.
+   */
+  public long getTextDescriptors() {
+    return textDescriptors.get();
+  }
+
+  /**
+   * Record a lookup in the result cache.
+   *
+   * @param hit <code>true</code> if the problems were found in the cache.
+   */
+  void recordResultCacheAccess(boolean hit) {
+    (hit ? resultCacheHits : resultCacheMisses).incrementAndGet();
+  }
+
+  /**
+   * @return The number of text chunks whose problems were found in the result cache.
+   */
+  public long getResultCacheHits() {
+    return resultCacheHits.get();
+  }
+
+  /**
+   * @return The number of text chunks whose problems were not found in the result cache.
+   */
+  public long getResultCacheMisses() {
+    return resultCacheMisses.get();
+  }
+
+  /**
+   * @return The fraction of the result cache lookups that were hits, 0 if the cache was not used.
+   */
+  public double getResultCacheHitRate() {
+    long hits = getResultCacheHits();
+    long lookups = hits + getResultCacheMisses();
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  /**
+   * Record a chunk of text checked in process with a compiled dictionary.
+   *
+   * @param chars The number of characters.
+   */
+  public void recordCompiledDictionaryCheck(int chars) {
+    compiledDictionaryChars.addAndGet(chars);
+  }
+
+  /**
+   * @return The number of characters checked in process with the compiled dictionaries.
+   */
+  public long getCompiledDictionaryChars() {
+    return compiledDictionaryChars.get();
+  }
+
+  /**
+   * Record the words not found in a compiled dictionary, sent to the host spellchecker.
+   *
+   * @param words The number of words.
+   */
+  public void recordCompiledDictionaryMisses(int words) {
+    compiledDictionaryMisses.addAndGet(words);
+  }
+
+  /**
+   * @return The number of words not found in the compiled dictionaries, sent to the host spellchecker.
+   */
+  public long getCompiledDictionaryMisses() {
+    return compiledDictionaryMisses.get();
+  }
+
+  /**
+   * Start logging the counters periodically, with the interval given by the system property.
+   * Does nothing if the log is disabled or already started.
+   */
+  public void startPeriodicLogging() {
+    startPeriodicLogging(Long.getLong(SpellcheckExecutor.PROPERTY_PREFIX + "metricsLogIntervalSec", 
+        DEFAULT_LOG_INTERVAL_SEC));
+  }
+
+  /**
+   * Start logging the counters periodically. Does nothing if the log is disabled or already started.
+   *
+   * @param intervalSec The interval between two logs, in seconds, 0 to disable the log.
+   */
+  synchronized void startPeriodicLogging(long intervalSec) {
+    if (logScheduler != null || intervalSec <= 0) {
+      return;
+    }
+    logScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "spellcheck-metrics-log");
+      thread.setDaemon(true);
+      return thread;
+    });
+    logScheduler.scheduleAtFixedRate(this::logMetrics, intervalSec, intervalSec, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Log the counters, unless they did not change since the last log.
+   */
+  synchronized void logMetrics() {
+    String metrics = toString();
+    if (!metrics.equals(lastLoggedMetrics)) {
+      log.info("Spellcheck metrics: " + metrics);
+      lastLoggedMetrics = metrics;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "extracted chars: " + getExtractedChars() + ", text descriptors: " + getTextDescriptors()
+        + ", result cache hits: " + getResultCacheHits() + "/" + (getResultCacheHits() + getResultCacheMisses())
+        + " (" + Math.round(getResultCacheHitRate() * 100) + "%)"
+        + ", compiled dictionary chars: " + getCompiledDictionaryChars()
+        + ", compiled dictionary misses: " + getCompiledDictionaryMisses();
+  }
+}
@@ -0,0 +1,60 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckSessionRecorder.RecordedStep;
+
+import ro.sync.ecss.extensions.api.ArgumentsMap;
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+import ro.sync.ecss.extensions.api.webapp.AuthorDocumentModel;
+import ro.sync.ecss.extensions.api.webapp.AuthorOperationWithResult;
+
+/**
+ * Base class for the operations of the spellcheck dialog.
+ *
+ * The operations work on a {@link SpellcheckEditor}, so that the load and replay tools can run them
+ * outside Web Author. Each run is recorded by the {@link SpellcheckSessionRecorder}, the failed ones too.
+ */
+public abstract class SpellcheckOperation extends AuthorOperationWithResult {
+
+  @Override
+  public String doOperation(AuthorDocumentModel model, ArgumentsMap args) throws AuthorOperationException {
+    return doOperation(new AuthorDocumentModelEditor(model), args);
+  }
+
+  /**
+   * Run the operation and record it.
+   *
+   * @param editor The editing session.
+   * @param args The operation arguments.
+   *
+   * @return The result of the operation, as JSON string.
+   *
+   * @throws AuthorOperationException If the operation fails.
+   */
+  public String doOperation(SpellcheckEditor editor, ArgumentsMap args) throws AuthorOperationException {
+    SpellcheckSessionRecorder recorder = SpellcheckSessionRecorder.getInstance();
+    RecordedStep step = recorder.startStep(editor);
+    String result = null;
+    Throwable failure = null;
+    try {
+      result = perform(editor, args);
+      return result;
+    } catch (Throwable e) {
+      failure = e;
+      throw e;
+    } finally {
+      recorder.endStep(step, editor, getClass().getSimpleName(), args, result, failure);
+    }
+  }
+
+  /**
+   * Run the operation.
+   *
+   * @param editor The editing session.
+   * @param args The operation arguments.
+   *
+   * @return The result of the operation, as JSON string.
+   *
+   * @throws AuthorOperationException If the operation fails.
+   */
+  protected abstract String perform(SpellcheckEditor editor, ArgumentsMap args) throws AuthorOperationException;
+}
@@ -1,14 +1,12 @@
 package com.oxygenxml.webapp.plugins.spellcheck;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import javax.swing.text.BadLocationException;
 
-import com.google.common.base.MoreObjects;
-
 import lombok.extern.slf4j.Slf4j;
 import ro.sync.ecss.extensions.api.AuthorDocumentController;
 import ro.sync.ecss.extensions.api.AuthorOperationException;
@@ -66,47 +64,67 @@ public class SpellcheckPerformer {
    */
   public Optional<SpellCheckingProblemInfo> runSpellcheck(
       int startOffset, int endOffset, AuthorDocumentController controller) throws AuthorOperationException {
+    List<SpellCheckingProblemInfo> problems = runSpellcheck(startOffset, endOffset, controller, 1);
+    return problems.isEmpty() ? Optional.empty() : Optional.of(problems.get(0));
+  }
+
+  /**
+   * Run spellcheck between two offsets, walking the interval once, until enough problems are found.
+   * 
+   * @param startOffset The start offset.
+   * @param endOffset The end offset.
+   * @param controller Author document controller
+   * @param maxProblems The maximum number of problems to find.
+   * 
+   * @return The problems found, in document order.
+   * 
+   * @throws AuthorOperationException If the spellcheck fails.
+   */
+  public List<SpellCheckingProblemInfo> runSpellcheck(int startOffset, int endOffset, 
+      AuthorDocumentController controller, int maxProblems) throws AuthorOperationException {
     log.debug("Checking between " + startOffset + " " + endOffset);
-    int interval = 1000;
     
-    int currentOffset = startOffset;
-    while (currentOffset < endOffset) {
-      int intervalEnd = Math.min(currentOffset + interval, endOffset);
-      Optional<SpellCheckingProblemInfo> nextProblem = 
-          runSpellcheckSingleInterval(currentOffset, intervalEnd, controller);
-      if (nextProblem.isPresent()) {
-        log.debug("Found: " + nextProblem.get().getWord());
-        return nextProblem;
+    List<SpellCheckingProblemInfo> problems = new ArrayList<>();
+    try {
+      SpellcheckTextCursor cursor = new SpellcheckTextCursor(controller, startOffset, endOffset, docLength,
+          SpellcheckResultCache.getInstance().isEnabled());
+      while (problems.size() < maxProblems && cursor.advance()) {
+        problems.addAll(runSpellcheckChunk(
+            cursor.getChunkStart(), cursor.getChunkEnd(), startOffset, endOffset, controller));
       }
-      currentOffset = Math.min(currentOffset + interval, endOffset);
+    } catch (BadLocationException e) {
+      throw new AuthorOperationException(e.getMessage(), e);
     }
     
-    return Optional.empty();
+    if (problems.size() > maxProblems) {
+      problems = new ArrayList<>(problems.subList(0, maxProblems));
+    }
+    return problems;
   }
 
   /**
-   * Runs spellcheck on a single interval.
+   * Runs spellcheck on a single chunk.
    * 
-   * @param start The start offset of the interval.
-   * @param end The end offset of the interval.
+   * @param chunkStart The start offset of the chunk.
+   * @param chunkEnd The end offset of the chunk.
+   * @param start The start offset of the checked interval.
+   * @param end The end offset of the checked interval.
    * @param controller Author document controller
    * 
-   * @return The first problem found or null if no problems were found.
+   * @return All the problems of the chunk that are in the checked interval and not ignored.
    * 
    * @throws AuthorOperationException If the spellcheck fails.
    */
-  private Optional<SpellCheckingProblemInfo> runSpellcheckSingleInterval(
-      int start, int end, AuthorDocumentController controller) throws AuthorOperationException {
-    log.debug("Checking interval between " + start + " " + end);
+  private List<SpellCheckingProblemInfo> runSpellcheckChunk(
+      int chunkStart, int chunkEnd, int start, int end, AuthorDocumentController controller) 
+          throws AuthorOperationException {
+    log.debug("Checking chunk between " + chunkStart + " " + chunkEnd);
 
-    // Run spellcheck on a slightly larger interval and ignore problems
-    // at the boundaries - they may be caused by truncated words.
-    int boundary = 50;
-    List<TextChunkDescriptor> textDescriptors = 
-        spellchecker.getTextDescriptors(
-            Math.max(0, start - boundary), 
-            Math.min(docLength, end + boundary));
+    // The chunks are cut at word boundaries, so there is no need to check a larger interval.
+    List<TextChunkDescriptor> textDescriptors = spellchecker.getTextDescriptors(chunkStart, chunkEnd);
+    SpellcheckMetrics.getInstance().recordExtractedText(chunkEnd - chunkStart, textDescriptors.size());
     
+    List<SpellCheckingProblemInfo> chunkProblems = new ArrayList<>();
     for (TextChunkDescriptor textDescriptor : textDescriptors) {
       try {
         List<SpellCheckingProblemInfo> problems = 
@@ -114,21 +132,22 @@ public class SpellcheckPerformer {
         for (SpellCheckingProblemInfo problem : problems) {
           if (problem.getStartOffset() >= start && problem.getStartOffset() <= end 
               && !ignoredWords.isIgnored(problem, controller)) {
-            return Optional.of(problem);
+            log.debug("Found: " + problem.getWord());
+            chunkProblems.add(problem);
           } else {
-            // The given word does not start in our interval. 
-            // It will be found again in the next interval.  
+            // The word is outside the checked interval: the first and the last chunks 
+            // are extended to the word boundaries.
           }
         }
       } catch (IOException | BadLocationException e) {
         throw new AuthorOperationException(e.getMessage(), e);
       }
     }
-    return Optional.empty();
+    return chunkProblems;
   }
 
   /**
-   * Runs the spell checker over a single text descriptor.
+   * Runs the spell checker over a single text descriptor, unless its problems are cached.
    * @param textDescriptor The text descriptor.
    * 
    * @return The list of problems.
@@ -137,11 +156,7 @@ public class SpellcheckPerformer {
    */
   private List<SpellCheckingProblemInfo> runSpellcheckTextDescriptor(
       TextChunkDescriptor textDescriptor) throws IOException {
-    List<SpellCheckingProblemInfo> problems = 
-        spellchecker.check(Collections.singletonList(textDescriptor));
-    
-    return MoreObjects.firstNonNull(problems, 
-        Collections.<SpellCheckingProblemInfo>emptyList());
+    return SpellcheckResultCache.getInstance().check(spellchecker, textDescriptor);
   }
 
 }
@@ -0,0 +1,18 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+
+/**
+ * Exception thrown when the spellcheck work cannot be admitted because the node is overloaded.
+ */
+public class SpellcheckRejectedException extends AuthorOperationException {
+
+  /**
+   * Constructor.
+   *
+   * @param message The message.
+   */
+  public SpellcheckRejectedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,427 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.oxygenxml.webapp.plugins.spellcheck.dictionary.CompiledDictionaryEngine;
+
+import lombok.extern.slf4j.Slf4j;
+import ro.sync.ecss.extensions.api.SpellCheckingProblemInfo;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+import ro.sync.exml.workspace.api.util.TextChunkDescriptor;
+
+/**
+ * Node-wide on-disk cache of the words of text chunks that are missing from the compiled dictionaries.
+ *
+ * The host spellchecker applies the learned words and the options of each user, so its problems are not
+ * cached. Only the scan with the compiled dictionary, that depends on nothing but the text and the
+ * dictionary, is: its unknown words are keyed by a hash of the chunk text, its language and the dictionary
+ * versions, and are stored relative to the start of the chunk. On each check, the host spellchecker still
+ * confirms the unknown words for the current user. The ignore rules are applied after the cache, so the
+ * entries are shared by all sessions. The text of the languages without a compiled dictionary is not cached.
+ *
+ * The size of the cache is tracked in memory, so its directory cannot be shared between nodes. The cache
+ * locks the directory and is disabled when another process holds the lock.
+ *
+ * The cache is configured using the following system properties:
+ * <ul>
+ * <li><code>com.oxygenxml.webapp.plugins.spellcheck.resultCacheDir</code> - the directory of the cache.
+ * The cache is disabled when not set.</li>
+ * <li><code>com.oxygenxml.webapp.plugins.spellcheck.resultCacheMaxMB</code> - the maximum size of the cache.
+ * The least recently used entries are removed when it is exceeded.</li>
+ * <li><code>com.oxygenxml.webapp.plugins.spellcheck.dictionaryVersion</code> - a version that is part of
+ * the key. Change it to stop using the old entries. The version of the compiled dictionaries is part of
+ * the key too, so it does not need to change with them.</li>
+ * </ul>
+ */
+@Slf4j
+public class SpellcheckResultCache {
+
+  /**
+   * The disk space used by an entry, in addition to its content.
+   */
+  private static final int ENTRY_OVERHEAD_BYTES = 4096;
+
+  /**
+   * The extension of the entry files.
+   */
+  private static final String ENTRY_EXTENSION = ".json";
+
+  /**
+   * The name of the file locked by the node that uses the directory.
+   */
+  private static final String LOCK_FILE_NAME = "cache.lock";
+
+  /**
+   * The format of the entries, part of the key.
+   */
+  private static final String ENTRY_FORMAT = "unknown-words-1";
+
+  /**
+   * The shared instance.
+   */
+  private static final SpellcheckResultCache INSTANCE = new SpellcheckResultCache(
+      System.getProperty(SpellcheckExecutor.PROPERTY_PREFIX + "resultCacheDir"),
+      Long.getLong(SpellcheckExecutor.PROPERTY_PREFIX + "resultCacheMaxMB", 256) * 1024 * 1024,
+      System.getProperty(SpellcheckExecutor.PROPERTY_PREFIX + "dictionaryVersion", ""),
+      CompiledDictionaryEngine.getInstance());
+
+  /**
+   * The directory of the cache, <code>null</code> if the cache is disabled.
+   */
+  private final Path cacheDir;
+
+  /**
+   * The maximum size of the cache, in bytes.
+   */
+  private final long maxSize;
+
+  /**
+   * The version that is part of the key.
+   */
+  private final String dictionaryVersion;
+
+  /**
+   * The engine that finds the unknown words.
+   */
+  private final CompiledDictionaryEngine engine;
+
+  /**
+   * The lock on the directory, <code>null</code> if the cache is disabled.
+   */
+  private final FileLock directoryLock;
+
+  /**
+   * The size of the entries, by key, in LRU order.
+   */
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * The total size of the entries.
+   */
+  private long totalSize;
+
+  /**
+   * Serializes the entries.
+   */
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /**
+   * Constructor.
+   *
+   * @param cacheDir The directory of the cache, <code>null</code> to disable the cache.
+   * @param maxSize The maximum size of the cache, in bytes.
+   * @param dictionaryVersion The version that is part of the key.
+   * @param engine The engine that finds the unknown words.
+   */
+  SpellcheckResultCache(String cacheDir, long maxSize, String dictionaryVersion, CompiledDictionaryEngine engine) {
+    this.maxSize = maxSize;
+    this.dictionaryVersion = dictionaryVersion;
+    this.engine = engine;
+    Path dir = null;
+    FileLock lock = null;
+    if (cacheDir != null && !cacheDir.isEmpty()) {
+      try {
+        dir = Files.createDirectories(Paths.get(cacheDir));
+        lock = lockDirectory(dir);
+        loadEntries(dir);
+        log.info("Spellcheck result cache in " + dir.toAbsolutePath() + " with " + entries.size() + " entries");
+      } catch (IOException e) {
+        log.warn("Spellcheck result cache disabled: " + e.getMessage());
+        releaseLock(lock);
+        dir = null;
+        lock = null;
+      }
+    }
+    this.cacheDir = dir;
+    this.directoryLock = lock;
+  }
+
+  /**
+   * Lock the directory of the cache, so that no other node uses it.
+   *
+   * @param dir The directory of the cache.
+   *
+   * @return The lock.
+   *
+   * @throws IOException If the directory is used by another cache.
+   */
+  private static FileLock lockDirectory(Path dir) throws IOException {
+    FileChannel channel = FileChannel.open(dir.resolve(LOCK_FILE_NAME),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock lock = null;
+    try {
+      lock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      // Locked by another cache of this JVM.
+    }
+    if (lock == null) {
+      channel.close();
+      throw new IOException(dir.toAbsolutePath() + " is used by another spellcheck result cache");
+    }
+    return lock;
+  }
+
+  /**
+   * Release the lock on the directory.
+   *
+   * @param lock The lock, <code>null</code> if there is none.
+   */
+  private static void releaseLock(FileLock lock) {
+    if (lock != null) {
+      try {
+        lock.channel().close();
+      } catch (IOException e) {
+        log.debug("Cannot release the lock of the spellcheck result cache: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Stop using the directory, so that another cache can use it. The cache is disabled afterwards.
+   */
+  void close() {
+    releaseLock(directoryLock);
+  }
+
+  /**
+   * @return The node-wide cache.
+   */
+  public static SpellcheckResultCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * @return <code>true</code> if the cache is enabled.
+   */
+  public boolean isEnabled() {
+    return cacheDir != null && directoryLock.isValid();
+  }
+
+  /**
+   * Spellcheck a text chunk, using the cached unknown words when the same text was already checked.
+   *
+   * @param spellchecker The spellchecker that confirms the problems.
+   * @param textDescriptor The text chunk.
+   *
+   * @return The problems, with offsets relative to the document.
+   *
+   * @throws IOException If the spellcheck fails.
+   */
+  public List<SpellCheckingProblemInfo> check(WebappSpellchecker spellchecker, TextChunkDescriptor textDescriptor)
+      throws IOException {
+    if (!isEnabled() || textDescriptor == null || textDescriptor.getTextChunk() == null
+        || engine.getDictionaryVersion(textDescriptor.getLanguage()).isEmpty()) {
+      return engine.check(spellchecker, textDescriptor);
+    }
+
+    String key = getKey(textDescriptor);
+    List<TextChunkDescriptor> unknownWords = get(key, textDescriptor);
+    if (unknownWords != null) {
+      SpellcheckMetrics.getInstance().recordResultCacheAccess(true);
+    } else {
+      SpellcheckMetrics.getInstance().recordResultCacheAccess(false);
+      unknownWords = engine.findUnknownWords(textDescriptor);
+      if (unknownWords == null) {
+        // The dictionary was unloaded in the meantime.
+        return engine.check(spellchecker, textDescriptor);
+      }
+      put(key, textDescriptor.getOffset(), unknownWords);
+    }
+    return engine.confirmProblems(spellchecker, unknownWords);
+  }
+
+  /**
+   * Get the key of a text chunk.
+   *
+   * @param textDescriptor The text chunk.
+   *
+   * @return The key.
+   */
+  private String getKey(TextChunkDescriptor textDescriptor) {
+    String language = textDescriptor.getLanguage();
+    return Hashing.sha256().newHasher()
+        .putString(ENTRY_FORMAT, StandardCharsets.UTF_8).putChar('\0')
+        .putString(dictionaryVersion, StandardCharsets.UTF_8).putChar('\0')
+        .putString(engine.getDictionaryVersion(language), StandardCharsets.UTF_8)
+        .putChar('\0')
+        .putString(String.valueOf(language), StandardCharsets.UTF_8).putChar('\0')
+        .putString(textDescriptor.getTextChunk(), StandardCharsets.UTF_8)
+        .hash().toString();
+  }
+
+  /**
+   * Get the cached unknown words of a text chunk.
+   *
+   * @param key The key of the text chunk.
+   * @param textDescriptor The text chunk.
+   *
+   * @return The unknown words, with offsets relative to the document, or <code>null</code> if not cached.
+   */
+  private List<TextChunkDescriptor> get(String key, TextChunkDescriptor textDescriptor) {
+    synchronized (entries) {
+      if (entries.get(key) == null) {
+        return null;
+      }
+    }
+    Path file = getEntryFile(key);
+    try {
+      CachedWord[] cachedWords = objectMapper.readValue(file.toFile(), CachedWord[].class);
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      List<TextChunkDescriptor> unknownWords = new ArrayList<>(cachedWords.length);
+      for (CachedWord cachedWord : cachedWords) {
+        unknownWords.add(new TextChunkDescriptor(cachedWord.word, 
+            textDescriptor.getOffset() + cachedWord.start, textDescriptor.getLanguage()));
+      }
+      return unknownWords;
+    } catch (IOException e) {
+      // Removed or corrupted.
+      log.debug("Cannot read the cached spellcheck result " + file + ": " + e.getMessage());
+      remove(key);
+      return null;
+    }
+  }
+
+  /**
+   * Cache the unknown words of a text chunk.
+   *
+   * @param key The key of the text chunk.
+   * @param chunkOffset The offset of the text chunk in the document.
+   * @param unknownWords The unknown words, with offsets relative to the document.
+   */
+  private void put(String key, int chunkOffset, List<TextChunkDescriptor> unknownWords) {
+    List<CachedWord> cachedWords = unknownWords.stream()
+        .map(unknownWord -> new CachedWord(unknownWord, chunkOffset))
+        .collect(Collectors.toList());
+    Path file = getEntryFile(key);
+    try {
+      byte[] content = objectMapper.writeValueAsBytes(cachedWords);
+      Files.createDirectories(file.getParent());
+      Path tempFile = Files.createTempFile(file.getParent(), key, ".tmp");
+      Files.write(tempFile, content);
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+      List<String> evictedKeys = new ArrayList<>();
+      synchronized (entries) {
+        Long previousSize = entries.put(key, (long) content.length + ENTRY_OVERHEAD_BYTES);
+        totalSize += content.length + ENTRY_OVERHEAD_BYTES - (previousSize != null ? previousSize : 0);
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalSize > maxSize && eldest.hasNext()) {
+          Map.Entry<String, Long> entry = eldest.next();
+          totalSize -= entry.getValue();
+          evictedKeys.add(entry.getKey());
+          eldest.remove();
+        }
+      }
+      for (String evictedKey : evictedKeys) {
+        Files.deleteIfExists(getEntryFile(evictedKey));
+      }
+    } catch (IOException e) {
+      log.debug("Cannot cache the spellcheck result " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Forget an entry.
+   *
+   * @param key The key of the entry.
+   */
+  private void remove(String key) {
+    synchronized (entries) {
+      Long size = entries.remove(key);
+      if (size != null) {
+        totalSize -= size;
+      }
+    }
+  }
+
+  /**
+   * Get the file of an entry. The entries are spread in sub-directories by the first characters of the key.
+   *
+   * @param key The key of the entry.
+   *
+   * @return The file.
+   */
+  private Path getEntryFile(String key) {
+    return cacheDir.resolve(key.substring(0, 2)).resolve(key + ENTRY_EXTENSION);
+  }
+
+  /**
+   * Load the entries left on disk by a previous run, in the order of their last use.
+   *
+   * @param dir The directory of the cache.
+   *
+   * @throws IOException If the directory cannot be read.
+   */
+  private void loadEntries(Path dir) throws IOException {
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(dir, 2)) {
+      files = walk.filter(file -> file.getFileName().toString().endsWith(ENTRY_EXTENSION))
+          .collect(Collectors.toList());
+    }
+    Map<Path, Long> lastModified = new LinkedHashMap<>();
+    for (Path file : files) {
+      lastModified.put(file, Files.getLastModifiedTime(file).toMillis());
+    }
+    files.sort(Comparator.comparing(lastModified::get));
+    for (Path file : files) {
+      String fileName = file.getFileName().toString();
+      long size = Files.size(file) + ENTRY_OVERHEAD_BYTES;
+      entries.put(fileName.substring(0, fileName.length() - ENTRY_EXTENSION.length()), size);
+      totalSize += size;
+    }
+  }
+
+  /**
+   * An unknown word stored in the cache, with its offset relative to the start of the chunk.
+   */
+  static class CachedWord {
+
+    /**
+     * The start offset, relative to the chunk.
+     */
+    public int start;
+
+    /**
+     * The word.
+     */
+    public String word;
+
+    /**
+     * Constructor used for deserialization.
+     */
+    public CachedWord() {
+      // Filled by the object mapper.
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param unknownWord The unknown word.
+     * @param chunkOffset The offset of the chunk in the document.
+     */
+    CachedWord(TextChunkDescriptor unknownWord, int chunkOffset) {
+      this.start = unknownWord.getOffset() - chunkOffset;
+      this.word = unknownWord.getTextChunk();
+    }
+  }
+}
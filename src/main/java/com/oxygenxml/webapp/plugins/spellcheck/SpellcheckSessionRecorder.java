@@ -0,0 +1,413 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+
+import lombok.extern.slf4j.Slf4j;
+import ro.sync.ecss.extensions.api.ArgumentsMap;
+
+/**
+ * Opt-in recorder of the spellcheck operations of each editing session, used to replay real
+ * interaction patterns offline.
+ *
+ * The recording is enabled by setting the <code>com.oxygenxml.webapp.plugins.spellcheck.recordingDir</code>
+ * system property to a directory. Each session is written to its own file, one JSON object per step.
+ * A step contains the operation, its timing, the caret offset, the document length, the numeric arguments
+ * and the offsets of the problems found. A failed step has the exception class instead of a result.
+ * The document text is never recorded: words are replaced by their
+ * length and a hash salted per session, and the ignored words by their count and payload size.
+ *
+ * The number of steps recorded per session is limited by the
+ * <code>com.oxygenxml.webapp.plugins.spellcheck.maxRecordedSteps</code> system property.
+ *
+ * The plugin never deletes the recordings: move or delete the files of the directory once they are collected.
+ * To bound the disk usage, a new session is not recorded when the directory already holds
+ * <code>com.oxygenxml.webapp.plugins.spellcheck.maxRecordings</code> recordings.
+ *
+ * A failure of the recorder is logged and never fails the recorded operation.
+ */
+@Slf4j
+public class SpellcheckSessionRecorder {
+
+  /**
+   * The name of the editing context attribute that holds the recording of the session.
+   */
+  private static final String RECORDING_ATTR_NAME = "com.oxygenxml.plugins.spellcheck.recording";
+
+  /**
+   * The arguments recorded as they are.
+   */
+  private static final String[] RECORDED_ARGUMENTS = {
+      GoToNextSpellingErrorOperation.WINDOW_SIZE_ARGUMENT_NAME,
+      GoToNextSpellingErrorOperation.INCLUDE_SUGGESTIONS_ARGUMENT_NAME,
+      "version", "startOffset", "endOffset", "language", "maxSuggestions", "timeBudgetMs",
+      "replaceAll", "ignoreCurrent"
+  };
+
+  /**
+   * The arguments that contain document text, recorded as hashes.
+   */
+  private static final String[] HASHED_ARGUMENTS = {"word", "newWord"};
+
+  /**
+   * The result properties recorded as they are.
+   */
+  private static final String[] RECORDED_RESULT_PROPERTIES = {
+      "startOffset", "endOffset", "language", "version", "rejected", "stale", "timedOut", "wordChanged"
+  };
+
+  /**
+   * The shared instance.
+   */
+  private static final SpellcheckSessionRecorder INSTANCE = new SpellcheckSessionRecorder(
+      System.getProperty(SpellcheckExecutor.PROPERTY_PREFIX + "recordingDir"),
+      Integer.getInteger(SpellcheckExecutor.PROPERTY_PREFIX + "maxRecordedSteps", 10000),
+      Integer.getInteger(SpellcheckExecutor.PROPERTY_PREFIX + "maxRecordings", 1000));
+
+  /**
+   * The prefix of the recording file names.
+   */
+  private static final String RECORDING_FILE_PREFIX = "spellcheck-";
+
+  /**
+   * The extension of the recording file names.
+   */
+  private static final String RECORDING_FILE_EXTENSION = ".jsonl";
+
+  /**
+   * The directory where the recordings are written, <code>null</code> if the recording is disabled.
+   */
+  private final Path recordingDir;
+
+  /**
+   * The maximum number of steps recorded per session.
+   */
+  private final int maxRecordedSteps;
+
+  /**
+   * The maximum number of recordings in the directory.
+   */
+  private final int maxRecordings;
+
+  /**
+   * Serializes the steps.
+   */
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /**
+   * Constructor.
+   *
+   * @param recordingDir The directory where the recordings are written, <code>null</code> to disable the recording.
+   * @param maxRecordedSteps The maximum number of steps recorded per session.
+   * @param maxRecordings The maximum number of recordings in the directory.
+   */
+  SpellcheckSessionRecorder(String recordingDir, int maxRecordedSteps, int maxRecordings) {
+    Path dir = null;
+    if (recordingDir != null && !recordingDir.isEmpty()) {
+      try {
+        dir = Files.createDirectories(Paths.get(recordingDir));
+        log.info("Recording the spellcheck sessions in " + dir.toAbsolutePath());
+      } catch (IOException e) {
+        log.warn("Spellcheck session recording disabled: " + e.getMessage());
+      }
+    }
+    this.recordingDir = dir;
+    this.maxRecordedSteps = maxRecordedSteps;
+    this.maxRecordings = maxRecordings;
+  }
+
+  /**
+   * @return The node-wide recorder.
+   */
+  public static SpellcheckSessionRecorder getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Start recording a step.
+   *
+   * @param editor The editing session.
+   *
+   * @return The step, or <code>null</code> if the recording is disabled.
+   */
+  public RecordedStep startStep(SpellcheckEditor editor) {
+    RecordedStep step = null;
+    if (recordingDir != null) {
+      try {
+        step = new RecordedStep(System.nanoTime(), editor.getCaretOffset(),
+            editor.getDocumentController().getAuthorDocumentNode().getEndOffset());
+      } catch (RuntimeException e) {
+        log.warn("Cannot record the spellcheck step: " + e, e);
+      }
+    }
+    return step;
+  }
+
+  /**
+   * Finish recording a step and write it to the recording of the session.
+   *
+   * @param step The step returned by {@link #startStep(SpellcheckEditor)}, <code>null</code> if not recorded.
+   * @param editor The editing session.
+   * @param operation The name of the operation.
+   * @param args The arguments of the operation.
+   * @param result The result of the operation, <code>null</code> if it failed.
+   * @param failure The failure of the operation, <code>null</code> if it succeeded.
+   */
+  public void endStep(RecordedStep step, SpellcheckEditor editor, String operation, ArgumentsMap args,
+      String result, Throwable failure) {
+    if (step == null) {
+      return;
+    }
+    long durationNanos = System.nanoTime() - step.startNanos;
+    try {
+      SessionRecording recording = (SessionRecording) editor.getOrCreateSessionAttribute(RECORDING_ATTR_NAME,
+          () -> new SessionRecording(createRecordingFile(), step.startNanos));
+      synchronized (recording) {
+        if (recording.file == null || recording.stepCount >= maxRecordedSteps) {
+          return;
+        }
+        recording.stepCount++;
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("t", TimeUnit.NANOSECONDS.toMillis(step.startNanos - recording.startNanos));
+        event.put("op", operation);
+        event.put("durationMs", durationNanos / 1e6);
+        event.put("caretOffset", step.caretOffset);
+        event.put("docLength", step.docLength);
+        event.put("args", describeArguments(args, recording.salt));
+        if (failure != null) {
+          // Only the class, the message may contain document text.
+          event.put("error", failure.getClass().getSimpleName());
+        } else {
+          event.put("result", describeResult(result, recording.salt));
+        }
+        String line = objectMapper.writeValueAsString(event) + "\n";
+        Files.write(recording.file, line.getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+      }
+    } catch (RuntimeException | IOException e) {
+      // Called when the operation ends, a failure here must not replace the result of the operation.
+      log.warn("Cannot record the spellcheck step: " + e, e);
+    }
+  }
+
+  /**
+   * Create the file of a new recording. The file is created right away, so that the sessions
+   * that start together see each other's recordings.
+   *
+   * @return The file, or <code>null</code> if the directory already holds the maximum number of recordings.
+   */
+  private synchronized Path createRecordingFile() {
+    Path file = null;
+    try {
+      long recordingCount;
+      try (Stream<Path> files = Files.list(recordingDir)) {
+        recordingCount = files.map(existingFile -> existingFile.getFileName().toString())
+            .filter(name -> name.startsWith(RECORDING_FILE_PREFIX) && name.endsWith(RECORDING_FILE_EXTENSION))
+            .count();
+      }
+      if (recordingCount < maxRecordings) {
+        file = Files.createFile(
+            recordingDir.resolve(RECORDING_FILE_PREFIX + UUID.randomUUID() + RECORDING_FILE_EXTENSION));
+      } else {
+        log.warn("Not recording the spellcheck session, " + recordingDir.toAbsolutePath() + " already holds "
+            + recordingCount + " recordings");
+      }
+    } catch (IOException e) {
+      log.warn("Cannot create the spellcheck recording: " + e.getMessage());
+    }
+    return file;
+  }
+
+  /**
+   * Describe the arguments of an operation, without the document text.
+   *
+   * @param args The arguments.
+   * @param salt The salt of the word hashes.
+   *
+   * @return The description of the arguments.
+   *
+   * @throws IOException If the ignored words cannot be measured.
+   */
+  private Map<String, Object> describeArguments(ArgumentsMap args, String salt) throws IOException {
+    Map<String, Object> description = new LinkedHashMap<>();
+    for (String name : RECORDED_ARGUMENTS) {
+      Object value = args.getArgumentValue(name);
+      if (value instanceof Number || value instanceof Boolean || value instanceof String) {
+        description.put(name, value);
+      }
+    }
+    for (String name : HASHED_ARGUMENTS) {
+      Object value = args.getArgumentValue(name);
+      if (value instanceof String) {
+        description.put(name, describeWord((String) value, salt));
+      }
+    }
+    Object ignoredWords = args.getArgumentValue(IgnoreCurrentAndFindNextSpellingOperation.IGNORED_WORDS_ARGUMENT_NAME);
+    if (ignoredWords instanceof Map) {
+      int count = 0;
+      for (Object words : ((Map<?, ?>) ignoredWords).values()) {
+        count += words instanceof List ? ((List<?>) words).size() : 0;
+      }
+      description.put("ignoredWordsCount", count);
+      description.put("ignoredWordsPayloadSize", objectMapper.writeValueAsString(ignoredWords).length());
+    }
+    return description;
+  }
+
+  /**
+   * Describe the result of an operation, without the document text.
+   *
+   * @param result The result, as JSON.
+   * @param salt The salt of the word hashes.
+   *
+   * @return The description of the result.
+   *
+   * @throws IOException If the result cannot be parsed.
+   */
+  private Map<String, Object> describeResult(String result, String salt) throws IOException {
+    if (result == null) {
+      return Collections.emptyMap();
+    }
+    Map<?, ?> parsedResult = objectMapper.readValue(result, Map.class);
+    Map<String, Object> description = describeProblem(parsedResult, salt);
+    Object suggestions = parsedResult.get("suggestions");
+    if (suggestions instanceof List) {
+      description.put("suggestionCount", ((List<?>) suggestions).size());
+    }
+    Object window = parsedResult.get("window");
+    if (window instanceof List) {
+      List<Map<String, Object>> windowDescription = new ArrayList<>();
+      for (Object problem : (List<?>) window) {
+        if (problem instanceof Map) {
+          windowDescription.add(describeProblem((Map<?, ?>) problem, salt));
+        }
+      }
+      description.put("window", windowDescription);
+    }
+    return description;
+  }
+
+  /**
+   * Describe a problem, or another result object, without the document text.
+   *
+   * @param problem The problem, as parsed from JSON.
+   * @param salt The salt of the word hashes.
+   *
+   * @return The description of the problem.
+   */
+  private static Map<String, Object> describeProblem(Map<?, ?> problem, String salt) {
+    Map<String, Object> description = new LinkedHashMap<>();
+    for (String name : RECORDED_RESULT_PROPERTIES) {
+      Object value = problem.get(name);
+      if (value != null) {
+        description.put(name, value);
+      }
+    }
+    Object word = problem.get("word");
+    if (word instanceof String) {
+      description.put("word", describeWord((String) word, salt));
+    }
+    return description;
+  }
+
+  /**
+   * Describe a word without revealing it.
+   *
+   * @param word The word.
+   * @param salt The salt of the hash.
+   *
+   * @return The length and the salted hash of the word.
+   */
+  private static Map<String, Object> describeWord(String word, String salt) {
+    Map<String, Object> description = new LinkedHashMap<>();
+    description.put("length", word.length());
+    description.put("hash", Hashing.sha256().hashString(salt + word, StandardCharsets.UTF_8).toString().substring(0, 16));
+    return description;
+  }
+
+  /**
+   * The state of a step captured when it starts.
+   */
+  public static class RecordedStep {
+
+    /**
+     * The start time.
+     */
+    private final long startNanos;
+
+    /**
+     * The caret offset before the step.
+     */
+    private final int caretOffset;
+
+    /**
+     * The document length before the step.
+     */
+    private final int docLength;
+
+    /**
+     * Constructor.
+     *
+     * @param startNanos The start time.
+     * @param caretOffset The caret offset before the step.
+     * @param docLength The document length before the step.
+     */
+    private RecordedStep(long startNanos, int caretOffset, int docLength) {
+      this.startNanos = startNanos;
+      this.caretOffset = caretOffset;
+      this.docLength = docLength;
+    }
+  }
+
+  /**
+   * The recording of a session.
+   */
+  private static class SessionRecording {
+
+    /**
+     * The file of the recording, <code>null</code> if the session is not recorded.
+     */
+    private final Path file;
+
+    /**
+     * The start time of the recording.
+     */
+    private final long startNanos;
+
+    /**
+     * The salt of the word hashes. Equal words have equal hashes inside a recording only.
+     */
+    private final String salt = UUID.randomUUID().toString();
+
+    /**
+     * The number of recorded steps.
+     */
+    private int stepCount;
+
+    /**
+     * Constructor.
+     *
+     * @param file The file of the recording, <code>null</code> if the session is not recorded.
+     * @param startNanos The start time of the recording.
+     */
+    private SessionRecording(Path file, long startNanos) {
+      this.file = file;
+      this.startNanos = startNanos;
+    }
+  }
+}
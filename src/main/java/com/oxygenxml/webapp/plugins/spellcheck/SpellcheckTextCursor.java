@@ -0,0 +1,230 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
+
+import ro.sync.ecss.extensions.api.AuthorDocumentController;
+
+/**
+ * Cursor that walks an interval of the document once, in chunks that do not split words.
+ *
+ * The chunks are cut at whitespace or at node boundaries, so every character is sent to the
+ * spellchecker exactly once and no problem is truncated at the chunk boundaries.
+ *
+ * The chunks are cut close to the multiples of {@link #CHUNK_LENGTH}, so the same text is split in the
+ * same chunks whatever the interval is. This lets the {@link SpellcheckResultCache} recognize them.
+ */
+class SpellcheckTextCursor {
+
+  /**
+   * The preferred length of a chunk.
+   */
+  static final int CHUNK_LENGTH = 1000;
+
+  /**
+   * How far to look for a boundary around the preferred chunk end.
+   */
+  private static final int BOUNDARY_SEARCH_LENGTH = 64;
+
+  /**
+   * The document controller.
+   */
+  private final AuthorDocumentController controller;
+
+  /**
+   * The end of the walked interval.
+   */
+  private final int endOffset;
+
+  /**
+   * The start of the current chunk.
+   */
+  private int chunkStart;
+
+  /**
+   * The end of the current chunk, exclusive.
+   */
+  private int chunkEnd;
+
+  /**
+   * Buffer for reading the document characters.
+   */
+  private final Segment chars = new Segment();
+
+  /**
+   * The length of the document.
+   */
+  private final int docLength;
+
+  /**
+   * Constructor.
+   *
+   * The interval is extended to the word boundaries, so that the words at its ends are checked whole.
+   *
+   * @param controller The document controller.
+   * @param startOffset The start offset of the interval.
+   * @param endOffset The end offset of the interval.
+   * @param docLength The length of the document.
+   * @param wholeChunks <code>true</code> to extend the interval to whole chunks, so that the first and
+   * the last chunks can be cached too.
+   *
+   * @throws BadLocationException If the interval is not in the document.
+   */
+  SpellcheckTextCursor(AuthorDocumentController controller, int startOffset, int endOffset, int docLength,
+      boolean wholeChunks) throws BadLocationException {
+    this.controller = controller;
+    this.docLength = docLength;
+    if (wholeChunks) {
+      int chunkIndex = startOffset / CHUNK_LENGTH;
+      int alignedStart = findChunkBoundary(chunkIndex);
+      if (alignedStart > startOffset) {
+        alignedStart = findChunkBoundary(chunkIndex - 1);
+      }
+      int alignedEnd = findChunkBoundary(endOffset / CHUNK_LENGTH + 1);
+      if (alignedEnd < endOffset) {
+        alignedEnd = findChunkBoundary(endOffset / CHUNK_LENGTH + 2);
+      }
+      this.chunkEnd = alignedStart;
+      this.endOffset = alignedEnd;
+      return;
+    }
+
+    int alignedStart = 0;
+    if (startOffset > 0) {
+      alignedStart = findBoundaryBefore(startOffset, 0);
+      if (alignedStart == -1) {
+        alignedStart = Math.max(0, startOffset - BOUNDARY_SEARCH_LENGTH);
+      }
+    }
+    int alignedEnd = docLength;
+    if (endOffset < docLength) {
+      alignedEnd = findBoundaryAfter(endOffset, docLength);
+      if (alignedEnd == -1) {
+        alignedEnd = Math.min(docLength, endOffset + BOUNDARY_SEARCH_LENGTH);
+      }
+    }
+    this.chunkEnd = alignedStart;
+    this.endOffset = alignedEnd;
+  }
+
+  /**
+   * Move to the next chunk.
+   *
+   * @return <code>false</code> if the whole interval was walked.
+   *
+   * @throws BadLocationException If the document cannot be read.
+   */
+  boolean advance() throws BadLocationException {
+    if (chunkEnd >= endOffset) {
+      return false;
+    }
+    chunkStart = chunkEnd;
+    int nextChunkIndex = chunkStart / CHUNK_LENGTH + 1;
+    chunkEnd = findChunkBoundary(nextChunkIndex);
+    if (chunkEnd <= chunkStart) {
+      chunkEnd = findChunkBoundary(nextChunkIndex + 1);
+    }
+    chunkEnd = Math.min(chunkEnd, endOffset);
+    return true;
+  }
+
+  /**
+   * Find where a chunk starts. The result depends only on the text around the multiple of the chunk length.
+   *
+   * @param chunkIndex The index of the chunk.
+   *
+   * @return The start offset of the chunk.
+   *
+   * @throws BadLocationException If the document cannot be read.
+   */
+  private int findChunkBoundary(int chunkIndex) throws BadLocationException {
+    int preferredOffset = chunkIndex * CHUNK_LENGTH;
+    if (preferredOffset <= 0) {
+      return 0;
+    }
+    if (preferredOffset >= docLength) {
+      return docLength;
+    }
+    int boundary = findBoundaryBefore(preferredOffset, preferredOffset - BOUNDARY_SEARCH_LENGTH);
+    if (boundary == -1) {
+      boundary = findBoundaryAfter(preferredOffset, docLength);
+    }
+    if (boundary == -1) {
+      // Such a long token is not a word, it can be cut anywhere.
+      boundary = preferredOffset;
+    }
+    return boundary;
+  }
+
+  /**
+   * @return The start offset of the current chunk.
+   */
+  int getChunkStart() {
+    return chunkStart;
+  }
+
+  /**
+   * @return The end offset of the current chunk, exclusive.
+   */
+  int getChunkEnd() {
+    return chunkEnd;
+  }
+
+  /**
+   * Find the offset that follows the last boundary character before a given offset.
+   *
+   * @param offset The offset.
+   * @param minOffset The minimum offset where to search.
+   *
+   * @return The offset after the boundary, or -1 if no boundary was found close to the given offset.
+   *
+   * @throws BadLocationException If the document cannot be read.
+   */
+  private int findBoundaryBefore(int offset, int minOffset) throws BadLocationException {
+    int searchStart = Math.max(minOffset, offset - BOUNDARY_SEARCH_LENGTH);
+    if (searchStart < offset) {
+      controller.getChars(searchStart, offset - searchStart, chars);
+      for (int i = chars.count - 1; i >= 0; i--) {
+        if (isBoundary(chars.array[chars.offset + i])) {
+          return searchStart + i + 1;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Find the first boundary character at or after a given offset.
+   *
+   * @param offset The offset.
+   * @param maxOffset The maximum offset where to search, exclusive.
+   *
+   * @return The offset of the boundary, or -1 if no boundary was found close to the given offset.
+   *
+   * @throws BadLocationException If the document cannot be read.
+   */
+  private int findBoundaryAfter(int offset, int maxOffset) throws BadLocationException {
+    int searchEnd = Math.min(maxOffset, offset + BOUNDARY_SEARCH_LENGTH);
+    if (offset < searchEnd) {
+      controller.getChars(offset, searchEnd - offset, chars);
+      for (int i = 0; i < chars.count; i++) {
+        if (isBoundary(chars.array[chars.offset + i])) {
+          return offset + i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Check if a character separates words. The node boundaries are represented by control characters
+   * in the document content.
+   *
+   * @param ch The character.
+   *
+   * @return <code>true</code> if the character separates words.
+   */
+  private static boolean isBoundary(char ch) {
+    return Character.isWhitespace(ch) || Character.isISOControl(ch);
+  }
+}
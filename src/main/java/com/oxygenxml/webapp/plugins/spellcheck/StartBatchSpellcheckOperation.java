@@ -0,0 +1,109 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.oxygenxml.webapp.plugins.spellcheck.batch.BatchSpellcheckJob;
+import com.oxygenxml.webapp.plugins.spellcheck.batch.DitaMapTopicCollector;
+
+import ro.sync.ecss.extensions.api.ArgumentsMap;
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+import ro.sync.ecss.extensions.api.access.EditingSessionContext;
+import ro.sync.ecss.extensions.api.webapp.AuthorDocumentModel;
+import ro.sync.ecss.extensions.api.webapp.AuthorOperationWithResult;
+import ro.sync.ecss.extensions.api.webapp.WebappRestSafe;
+
+/**
+ * Operation that starts the spellcheck of many topics.
+ * 
+ * The topics are either given explicitly, or collected from the DITA map opened in the editor.
+ * They are checked while the results are polled with {@link GetBatchSpellcheckResultsOperation}.
+ * Starting a new job cancels the previous job of the same editing session.
+ */
+@WebappRestSafe
+public class StartBatchSpellcheckOperation extends AuthorOperationWithResult {
+
+  /**
+   * The name of the editing context attribute that holds the batch job of the session.
+   */
+  static final String BATCH_JOB_ATTR_NAME = "com.oxygenxml.plugins.spellcheck.batchJob";
+
+  /**
+   * Language used for the topics that do not specify one, if not given as argument.
+   */
+  private static final String DEFAULT_LANGUAGE = "en_US";
+
+  @Override
+  public String doOperation(AuthorDocumentModel model, ArgumentsMap args) throws AuthorOperationException {
+    EditingSessionContext editingContext = model.getAuthorAccess().getEditorAccess().getEditingContext();
+    URL editorLocation = model.getAuthorAccess().getEditorAccess().getEditorLocation();
+
+    List<URL> topics;
+    try {
+      topics = getTopics(editorLocation, args.getArgumentValue("urls"));
+    } catch (IOException e) {
+      throw new AuthorOperationException(e.getMessage(), e);
+    }
+
+    IgnoredWords ignoredWords = IgnoredWords.fromUncheckedArgument(
+        MoreObjects.firstNonNull(args.getArgumentValue("ignoredWords"), Collections.emptyMap()), null);
+    String defaultLanguage = MoreObjects.firstNonNull(
+        (String) args.getArgumentValue("defaultLanguage"), DEFAULT_LANGUAGE);
+
+    BatchSpellcheckJob previousJob = (BatchSpellcheckJob) editingContext.getAttribute(BATCH_JOB_ATTR_NAME);
+    if (previousJob != null) {
+      previousJob.cancel();
+    }
+
+    BatchSpellcheckJob job = new BatchSpellcheckJob(topics, ignoredWords, defaultLanguage);
+    editingContext.setAttribute(BATCH_JOB_ATTR_NAME, job);
+
+    try {
+      return new ObjectMapper().writeValueAsString(ImmutableMap.of(
+          "jobId", job.getId(),
+          "topicCount", job.getTopicCount()));
+    } catch (IOException e) {
+      throw new AuthorOperationException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Get the topics to check.
+   * 
+   * @param editorLocation The location of the document opened in the editor.
+   * @param urlsArg The URLs of the topics, relative to the document, or <code>null</code> to collect 
+   * the topics of the map opened in the editor.
+   * 
+   * @return The URLs of the topics.
+   * 
+   * @throws IOException If the topics cannot be collected.
+   */
+  private static List<URL> getTopics(URL editorLocation, Object urlsArg) throws IOException {
+    if (urlsArg == null) {
+      return new DitaMapTopicCollector(BatchSpellcheckJob.MAX_TOPICS).collectTopics(editorLocation);
+    }
+    List<URL> topics = new ArrayList<>();
+    try {
+      for (Object url : (List<?>) urlsArg) {
+        if (topics.size() >= BatchSpellcheckJob.MAX_TOPICS) {
+          break;
+        }
+        URL topic = new URL(editorLocation, (String) url);
+        // Only documents from the same server as the edited one can be checked.
+        if (DitaMapTopicCollector.isLocalDocument(topic, editorLocation)) {
+          topics.add(topic);
+        }
+      }
+    } catch (ClassCastException | MalformedURLException e) {
+      throw new IllegalArgumentException("urls", e);
+    }
+    return topics;
+  }
+}
@@ -0,0 +1,183 @@
+package com.oxygenxml.webapp.plugins.spellcheck.batch;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.ImmutableMap;
+import com.oxygenxml.webapp.plugins.spellcheck.IgnoredWords;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckExecutor;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckExecutor.Priority;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckRejectedException;
+
+import lombok.extern.slf4j.Slf4j;
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+
+/**
+ * Job that spellchecks a set of topics, a few of them each time its results are polled.
+ *
+ * The topics are read and checked on the threads of the requests of the editing session that started
+ * the job, so they are read with the credentials of the session and checked with the spellchecker of the
+ * current request. No work is left running when the client stops polling or the session ends.
+ *
+ * Each poll checks topics for a time budget, as background work on the {@link SpellcheckExecutor}, so the
+ * interactive spellcheck keeps its reserved slots. When the node is busy, the remaining topics are left
+ * for the next poll.
+ */
+@Slf4j
+public class BatchSpellcheckJob {
+
+  /**
+   * The maximum number of topics checked by a job.
+   */
+  public static final int MAX_TOPICS = 1000;
+
+  /**
+   * Counter used to generate the job ids.
+   */
+  private static final AtomicInteger JOB_COUNTER = new AtomicInteger();
+
+  /**
+   * The id of the job.
+   */
+  private final int id;
+
+  /**
+   * The topics to check.
+   */
+  private final List<URL> topics;
+
+  /**
+   * The ignored words.
+   */
+  private final IgnoredWords ignoredWords;
+
+  /**
+   * The language used for the topics that do not specify one.
+   */
+  private final String defaultLanguage;
+
+  /**
+   * The results not yet collected.
+   */
+  private final List<Map<String, Object>> results = new ArrayList<>();
+
+  /**
+   * The index of the next topic to check, which is also the number of checked topics.
+   */
+  private int nextTopic;
+
+  /**
+   * Whether the job was cancelled.
+   */
+  private volatile boolean cancelled;
+
+  /**
+   * Constructor.
+   *
+   * @param topics The topics to check.
+   * @param ignoredWords The ignored words.
+   * @param defaultLanguage The language used for the topics that do not specify one.
+   */
+  public BatchSpellcheckJob(List<URL> topics, IgnoredWords ignoredWords, String defaultLanguage) {
+    this.id = JOB_COUNTER.incrementAndGet();
+    this.topics = new ArrayList<>(topics.subList(0, Math.min(topics.size(), MAX_TOPICS)));
+    this.ignoredWords = ignoredWords;
+    this.defaultLanguage = defaultLanguage;
+  }
+
+  /**
+   * Check the next topics, until the time budget is spent. The topic being checked when the budget
+   * is spent is finished.
+   *
+   * @param spellchecker The spellchecker of the current request.
+   * @param timeBudgetMs The time budget, in milliseconds.
+   *
+   * @throws AuthorOperationException If the spellcheck cannot run.
+   */
+  public synchronized void checkTopics(WebappSpellchecker spellchecker, long timeBudgetMs)
+      throws AuthorOperationException {
+    TopicTextChecker checker = new TopicTextChecker(spellchecker, ignoredWords, defaultLanguage);
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+    while (!cancelled && nextTopic < topics.size() && System.nanoTime() - deadline < 0) {
+      URL topic = topics.get(nextTopic);
+      try {
+        results.add(SpellcheckExecutor.getInstance().execute(Priority.BACKGROUND, () -> checkTopic(checker, topic)));
+      } catch (SpellcheckRejectedException e) {
+        log.debug("Batch spellcheck job " + id + " postponed: " + e.getMessage());
+        return;
+      }
+      nextTopic++;
+    }
+  }
+
+  /**
+   * Check a topic.
+   *
+   * @param checker The checker.
+   * @param topic The topic.
+   *
+   * @return The result of the topic, or the error if it could not be checked.
+   */
+  private static Map<String, Object> checkTopic(TopicTextChecker checker, URL topic) {
+    try {
+      return checker.check(topic);
+    } catch (IOException e) {
+      log.debug("Batch spellcheck failed for " + topic + ": " + e.getMessage());
+      return ImmutableMap.of(
+          "url", topic.toExternalForm(),
+          "error", String.valueOf(e.getMessage()));
+    }
+  }
+
+  /**
+   * Remove and return the results available so far.
+   *
+   * @return The results of the topics checked since the last call.
+   */
+  public synchronized List<Map<String, Object>> drainResults() {
+    List<Map<String, Object>> drained = new ArrayList<>(results);
+    results.clear();
+    return drained;
+  }
+
+  /**
+   * Cancel the job. No more topics are checked.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * @return The id of the job.
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * @return The number of topics to check.
+   */
+  public int getTopicCount() {
+    return topics.size();
+  }
+
+  /**
+   * @return The number of checked topics.
+   */
+  public synchronized int getCompletedCount() {
+    return nextTopic;
+  }
+
+  /**
+   * @return <code>true</code> if no topic is checked anymore.
+   */
+  public synchronized boolean isDone() {
+    return cancelled || nextTopic >= topics.size();
+  }
+}
@@ -0,0 +1,266 @@
+package com.oxygenxml.webapp.plugins.spellcheck.batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.google.common.base.Strings;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects the local topics referenced from a DITA map, including the ones from the submaps.
+ *
+ * Only the documents from the same server as the map are collected. For URLs without a server, like
+ * <code>file:</code> URLs, only the documents inside the directory of the map are collected. The DTDs are not loaded, so the
+ * <code>format</code> attribute is not defaulted: when it is missing, a <code>mapref</code> element or a
+ * <code>.ditamap</code> extension marks a submap, and a <code>.dita</code> or <code>.xml</code> extension
+ * marks a topic. The other references, like images, are skipped.
+ */
+@Slf4j
+public class DitaMapTopicCollector {
+
+  /**
+   * The maximum depth of the submaps.
+   */
+  private static final int MAX_MAP_DEPTH = 10;
+
+  /**
+   * The maximum number of collected topics.
+   */
+  private final int maxTopics;
+
+  /**
+   * The collected topics.
+   */
+  private final Set<URL> topics = new LinkedHashSet<>();
+
+  /**
+   * The visited maps.
+   */
+  private final Set<URL> visitedMaps = new LinkedHashSet<>();
+
+  /**
+   * Constructor.
+   *
+   * @param maxTopics The maximum number of collected topics.
+   */
+  public DitaMapTopicCollector(int maxTopics) {
+    this.maxTopics = maxTopics;
+  }
+
+  /**
+   * Collect the topics of a map.
+   *
+   * @param mapUrl The URL of the map.
+   *
+   * @return The URLs of the topics, in document order.
+   *
+   * @throws IOException If the map cannot be read.
+   */
+  public List<URL> collectTopics(URL mapUrl) throws IOException {
+    collectTopics(mapUrl, mapUrl, 0);
+    return new ArrayList<>(topics);
+  }
+
+  /**
+   * Collect the topics of a map.
+   *
+   * @param mapUrl The URL of the map.
+   * @param origin The URL of a local document, giving the server of the local documents.
+   * @param depth The depth of the map.
+   *
+   * @throws IOException If the map cannot be read.
+   */
+  private void collectTopics(URL mapUrl, URL origin, int depth) throws IOException {
+    if (depth > MAX_MAP_DEPTH || !visitedMaps.add(mapUrl)) {
+      return;
+    }
+
+    List<URL> submaps = new ArrayList<>();
+    DefaultHandler handler = new DefaultHandler() {
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        String href = attributes.getValue("href");
+        String scope = attributes.getValue("scope");
+        String format = attributes.getValue("format");
+        if (href == null || "external".equals(scope) || "peer".equals(scope) || topics.size() >= maxTopics) {
+          return;
+        }
+        try {
+          URL target = resolveLocalUrl(mapUrl, href, origin);
+          if (target == null) {
+            return;
+          }
+          if (format == null) {
+            format = guessFormat(localName.isEmpty() ? qName : localName, target);
+          }
+          if ("ditamap".equals(format)) {
+            submaps.add(target);
+          } else if ("dita".equals(format)) {
+            topics.add(target);
+          }
+        } catch (MalformedURLException e) {
+          log.warn("Invalid reference " + href + " in " + mapUrl);
+        }
+      }
+    };
+
+    try (InputStream input = mapUrl.openStream()) {
+      XMLReader reader = createXMLReader();
+      reader.setContentHandler(handler);
+      InputSource inputSource = new InputSource(input);
+      inputSource.setSystemId(mapUrl.toExternalForm());
+      reader.parse(inputSource);
+    } catch (SAXException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+
+    for (URL submap : submaps) {
+      collectTopics(submap, origin, depth + 1);
+    }
+  }
+
+  /**
+   * Guess the format of a reference without a <code>format</code> attribute.
+   *
+   * @param elementName The local name of the referencing element.
+   * @param target The URL of the referenced document.
+   *
+   * @return <code>ditamap</code>, <code>dita</code>, or <code>null</code> for the other formats.
+   */
+  static String guessFormat(String elementName, URL target) {
+    String path = target.getPath().toLowerCase(Locale.ROOT);
+    String format = null;
+    if ("mapref".equals(elementName) || path.endsWith(".ditamap")) {
+      format = "ditamap";
+    } else if (path.endsWith(".dita") || path.endsWith(".xml")) {
+      format = "dita";
+    }
+    return format;
+  }
+
+  /**
+   * Resolve a reference to a local document.
+   *
+   * @param base The URL of the referencing document.
+   * @param href The reference.
+   * @param origin The URL of a local document, giving the server of the local documents.
+   *
+   * @return The URL of the document, without the fragment, or <code>null</code> if the document is not local.
+   *
+   * @throws MalformedURLException If the reference is not valid.
+   */
+  static URL resolveLocalUrl(URL base, String href, URL origin) throws MalformedURLException {
+    URL resolved = new URL(base, href);
+    if (resolved.getRef() != null) {
+      resolved = new URL(resolved, resolved.getFile());
+    }
+    return isLocalDocument(resolved, origin) ? resolved : null;
+  }
+
+  /**
+   * Check if a document can be read on behalf of the user that edits another document.
+   *
+   * The document must be on the same server as the edited one. When the URLs have no server, like the
+   * <code>file:</code> URLs, the document must be inside the directory of the edited one, so that the
+   * references cannot read the other files of the node.
+   *
+   * @param url The URL of the document.
+   * @param origin The URL of the edited document.
+   *
+   * @return <code>true</code> if the document can be read.
+   */
+  public static boolean isLocalDocument(URL url, URL origin) {
+    return Strings.isNullOrEmpty(url.getHost()) ? isInsideDirectoryOf(url, origin) : isSameServer(url, origin);
+  }
+
+  /**
+   * Check if two URLs point to the same server: same protocol, host and port.
+   *
+   * @param url An URL.
+   * @param other Another URL.
+   *
+   * @return <code>true</code> if the URLs point to the same server, <code>false</code> if they do not or
+   * if they have no server.
+   */
+  static boolean isSameServer(URL url, URL other) {
+    return !Strings.isNullOrEmpty(url.getHost())
+        && url.getProtocol().equalsIgnoreCase(other.getProtocol())
+        && url.getHost().equalsIgnoreCase(other.getHost())
+        && getEffectivePort(url) == getEffectivePort(other);
+  }
+
+  /**
+   * Check if a local file is inside the directory of another local file, after decoding and normalizing
+   * its path.
+   *
+   * @param url The URL of the file.
+   * @param origin The URL of the other file.
+   *
+   * @return <code>true</code> if both URLs are <code>file:</code> URLs and the file is inside the directory
+   * of the other file.
+   */
+  private static boolean isInsideDirectoryOf(URL url, URL origin) {
+    if (!"file".equalsIgnoreCase(url.getProtocol()) || !"file".equalsIgnoreCase(origin.getProtocol())
+        || !Strings.isNullOrEmpty(origin.getHost())) {
+      return false;
+    }
+    try {
+      Path directory = Paths.get(origin.toURI()).normalize().getParent();
+      return directory != null && Paths.get(url.toURI()).normalize().startsWith(directory);
+    } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+      log.debug("Cannot resolve the local file " + url + ": " + e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * @param url An URL.
+   *
+   * @return The port of the URL, or the default port of its protocol if not specified.
+   */
+  private static int getEffectivePort(URL url) {
+    return url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+  }
+
+  /**
+   * Create a non-validating XML reader that does not load the DTDs.
+   *
+   * @return The XML reader.
+   *
+   * @throws SAXException If the reader cannot be created.
+   */
+  static XMLReader createXMLReader() throws SAXException {
+    try {
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      factory.setNamespaceAware(true);
+      factory.setValidating(false);
+      factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+      factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+      factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+      return factory.newSAXParser().getXMLReader();
+    } catch (ParserConfigurationException e) {
+      throw new SAXException(e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,383 @@
+package com.oxygenxml.webapp.plugins.spellcheck.batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.oxygenxml.webapp.plugins.spellcheck.IgnoredWords;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckMetrics;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckResultCache;
+
+import ro.sync.ecss.extensions.api.SpellCheckingProblemInfo;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+import ro.sync.exml.workspace.api.util.TextChunkDescriptor;
+
+/**
+ * Spellchecks a topic that is not opened in the editor.
+ *
+ * The topic is streamed with SAX and its text is sent to the spellchecker in chunks of about
+ * {@link #CHUNK_LENGTH} characters, cut at word boundaries, so the memory used does not depend
+ * on the size of the topic. A chunk is shorter than twice that length, even for a long text node
+ * or a long word.
+ */
+public class TopicTextChecker {
+
+  /**
+   * The preferred length of a chunk.
+   */
+  static final int CHUNK_LENGTH = 1000;
+
+  /**
+   * The maximum number of problem locations reported for a topic. The problems are still counted.
+   */
+  static final int MAX_REPORTED_PROBLEMS = 50;
+
+  /**
+   * Elements whose content is not prose.
+   */
+  private static final Set<String> SKIPPED_ELEMENTS = new HashSet<>(Arrays.asList(
+      "codeblock", "codeph", "filepath", "pre"));
+
+  /**
+   * Highlighting elements that can be used inside a word, so they do not separate words.
+   */
+  private static final Set<String> INLINE_ELEMENTS = new HashSet<>(Arrays.asList(
+      "b", "i", "u", "sup", "sub", "tt", "line-through", "overline"));
+
+  /**
+   * The spellchecker.
+   */
+  private final WebappSpellchecker spellchecker;
+
+  /**
+   * The ignored words.
+   */
+  private final IgnoredWords ignoredWords;
+
+  /**
+   * The language used when the topic does not specify one.
+   */
+  private final String defaultLanguage;
+
+  /**
+   * Constructor.
+   *
+   * @param spellchecker The spellchecker.
+   * @param ignoredWords The ignored words.
+   * @param defaultLanguage The language used when the topic does not specify one.
+   */
+  public TopicTextChecker(WebappSpellchecker spellchecker, IgnoredWords ignoredWords, String defaultLanguage) {
+    this.spellchecker = spellchecker;
+    this.ignoredWords = ignoredWords;
+    this.defaultLanguage = defaultLanguage;
+  }
+
+  /**
+   * Spellcheck a topic.
+   *
+   * @param topicUrl The URL of the topic.
+   *
+   * @return The result: the topic URL, the number of problems and the first problems.
+   *
+   * @throws IOException If the topic cannot be read or checked.
+   */
+  public Map<String, Object> check(URL topicUrl) throws IOException {
+    TopicHandler handler = new TopicHandler();
+    try (InputStream input = topicUrl.openStream()) {
+      XMLReader reader = DitaMapTopicCollector.createXMLReader();
+      reader.setContentHandler(handler);
+      InputSource inputSource = new InputSource(input);
+      inputSource.setSystemId(topicUrl.toExternalForm());
+      reader.parse(inputSource);
+      handler.flush();
+    } catch (SAXException e) {
+      if (e.getException() instanceof IOException) {
+        throw (IOException) e.getException();
+      }
+      throw new IOException(e.getMessage(), e);
+    }
+    return ImmutableMap.of(
+        "url", topicUrl.toExternalForm(),
+        "problemCount", handler.problemCount,
+        "problems", handler.reportedProblems);
+  }
+
+  /**
+   * Handler that collects the text of the topic and checks it.
+   */
+  private class TopicHandler extends DefaultHandler {
+
+    /**
+     * The text waiting to be checked.
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * The language of the text waiting to be checked.
+     */
+    private String textLanguage;
+
+    /**
+     * Offsets in the text where a new line of the topic starts to be recorded.
+     */
+    private final List<int[]> lineMarks = new ArrayList<>();
+
+    /**
+     * The languages of the open elements.
+     */
+    private final Deque<String> languages = new ArrayDeque<>();
+
+    /**
+     * Depth inside elements whose content is skipped.
+     */
+    private int skippedDepth;
+
+    /**
+     * The document locator.
+     */
+    private Locator locator;
+
+    /**
+     * The number of problems.
+     */
+    private int problemCount;
+
+    /**
+     * The first problems.
+     */
+    private final List<Map<String, Object>> reportedProblems = new ArrayList<>();
+
+    @Override
+    public void setDocumentLocator(Locator locator) {
+      this.locator = locator;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes)
+        throws SAXException {
+      String lang = attributes.getValue("xml:lang");
+      if (lang == null) {
+        lang = attributes.getValue("http://www.w3.org/XML/1998/namespace", "lang");
+      }
+      languages.push(lang != null ? lang.replace('-', '_') : MoreObjects.firstNonNull(languages.peek(), defaultLanguage));
+      if (skippedDepth > 0 || SKIPPED_ELEMENTS.contains(localName)) {
+        skippedDepth++;
+      }
+      separateWords(localName);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+      languages.pop();
+      if (skippedDepth > 0) {
+        skippedDepth--;
+      }
+      separateWords(localName);
+    }
+
+    /**
+     * Separate the text before and after an element boundary, unless the element can be used inside words.
+     *
+     * @param localName The name of the element.
+     *
+     * @throws SAXException If the spellcheck fails.
+     */
+    private void separateWords(String localName) throws SAXException {
+      if (!INLINE_ELEMENTS.contains(localName)) {
+        char[] space = {' '};
+        appendText(space, 0, 1, getStartLine(space, 0, 1));
+      }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+      if (skippedDepth == 0) {
+        // A text node can be arbitrarily long, so it is appended in parts that fit in a chunk.
+        int line = getStartLine(ch, start, length);
+        for (int partStart = start; partStart < start + length; partStart += CHUNK_LENGTH) {
+          int partLength = Math.min(CHUNK_LENGTH, start + length - partStart);
+          appendText(ch, partStart, partLength, line);
+          if (line != -1) {
+            line += countNewLines(ch, partStart, partLength);
+          }
+        }
+      }
+    }
+
+    /**
+     * Get the line of the start of the text reported by the parser.
+     *
+     * @param ch The characters.
+     * @param start The start of the text.
+     * @param length The length of the text.
+     *
+     * @return The line, or -1 if unknown.
+     */
+    private int getStartLine(char[] ch, int start, int length) {
+      // The locator points to the end of the text, so count the lines backwards.
+      return locator != null ? locator.getLineNumber() - countNewLines(ch, start, length) : -1;
+    }
+
+    /**
+     * Append text, no longer than a chunk, to the current chunk, checking the chunk when it is full
+     * or the language changes.
+     *
+     * @param ch The characters.
+     * @param start The start of the text.
+     * @param length The length of the text.
+     * @param line The line of the start of the text, or -1 if unknown.
+     *
+     * @throws SAXException If the spellcheck fails.
+     */
+    private void appendText(char[] ch, int start, int length, int line) throws SAXException {
+      String language = languages.peek();
+      if (textLanguage != null && !textLanguage.equals(language)) {
+        flush();
+      }
+      textLanguage = language;
+      if (line != -1) {
+        lineMarks.add(new int[] {text.length(), line});
+        for (int i = start; i < start + length; i++) {
+          if (ch[i] == '\n') {
+            line++;
+            lineMarks.add(new int[] {text.length() + i - start + 1, line});
+          }
+        }
+      }
+      text.append(ch, start, length);
+      if (text.length() >= CHUNK_LENGTH) {
+        int boundary = text.length() - 1;
+        while (boundary > 0 && !Character.isWhitespace(text.charAt(boundary))) {
+          boundary--;
+        }
+        // When the last word is too long, it is cut, so that the remaining text stays shorter than a chunk.
+        flush(boundary > 0 && text.length() - boundary < CHUNK_LENGTH ? boundary : text.length());
+      }
+    }
+
+    /**
+     * Check all the text waiting to be checked.
+     *
+     * @throws SAXException If the spellcheck fails.
+     */
+    void flush() throws SAXException {
+      flush(text.length());
+    }
+
+    /**
+     * Check the text waiting to be checked, up to a given length.
+     *
+     * @param length The length of the checked text.
+     *
+     * @throws SAXException If the spellcheck fails.
+     */
+    private void flush(int length) throws SAXException {
+      if (length == 0) {
+        return;
+      }
+      String chunk = text.substring(0, length);
+      if (!chunk.trim().isEmpty()) {
+        checkChunk(chunk);
+      }
+      text.delete(0, length);
+
+      // Keep the line of the remaining text.
+      int lastLine = -1;
+      List<int[]> remainingMarks = new ArrayList<>();
+      for (int[] mark : lineMarks) {
+        if (mark[0] <= length) {
+          lastLine = mark[1];
+        } else {
+          remainingMarks.add(new int[] {mark[0] - length, mark[1]});
+        }
+      }
+      lineMarks.clear();
+      if (lastLine != -1) {
+        lineMarks.add(new int[] {0, lastLine});
+      }
+      lineMarks.addAll(remainingMarks);
+    }
+
+    /**
+     * Spellcheck a chunk of text.
+     *
+     * @param chunk The chunk.
+     *
+     * @throws SAXException If the spellcheck fails.
+     */
+    private void checkChunk(String chunk) throws SAXException {
+      List<SpellCheckingProblemInfo> problems;
+      try {
+        problems = SpellcheckResultCache.getInstance().check(spellchecker, new TextChunkDescriptor(chunk, 0, textLanguage));
+      } catch (IOException e) {
+        throw new SAXException(e);
+      }
+      SpellcheckMetrics.getInstance().recordExtractedText(chunk.length(), 1);
+      for (SpellCheckingProblemInfo problem : problems) {
+        if (!ignoredWords.isIgnoredWord(problem.getLanguageIsoName(), problem.getWord())) {
+          problemCount++;
+          if (reportedProblems.size() < MAX_REPORTED_PROBLEMS) {
+            reportedProblems.add(ImmutableMap.of(
+                "word", problem.getWord(),
+                "language", problem.getLanguageIsoName(),
+                "line", getLine(problem.getStartOffset())));
+          }
+        }
+      }
+    }
+
+    /**
+     * Count the new lines in some text.
+     *
+     * @param ch The characters.
+     * @param start The start of the text.
+     * @param length The length of the text.
+     *
+     * @return The number of new lines.
+     */
+    private int countNewLines(char[] ch, int start, int length) {
+      int count = 0;
+      for (int i = start; i < start + length; i++) {
+        if (ch[i] == '\n') {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Get the line in the topic of an offset in the current chunk.
+     *
+     * @param offset The offset in the chunk.
+     *
+     * @return The line number, or -1 if unknown.
+     */
+    private int getLine(int offset) {
+      int line = -1;
+      for (int[] mark : lineMarks) {
+        if (mark[0] > offset) {
+          break;
+        }
+        line = mark[1];
+      }
+      return line;
+    }
+  }
+}
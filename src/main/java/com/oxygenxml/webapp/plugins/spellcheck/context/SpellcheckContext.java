@@ -3,13 +3,21 @@ package com.oxygenxml.webapp.plugins.spellcheck.context;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Position;
 
 import ro.sync.ecss.extensions.api.AuthorDocumentController;
+import ro.sync.ecss.extensions.api.AuthorListener;
+import ro.sync.ecss.extensions.api.AuthorListenerAdapter;
+import ro.sync.ecss.extensions.api.DocumentContentDeletedEvent;
+import ro.sync.ecss.extensions.api.DocumentContentInsertedEvent;
 import ro.sync.ecss.extensions.api.SpellCheckingProblemInfo;
+import ro.sync.ecss.extensions.api.node.AuthorDocument;
 
 /**
  * The spellcheck context. 
@@ -21,6 +29,10 @@ public class SpellcheckContext {
    * Attribute name for spellcheck context (that is used to be saved in the editing context)
    */
   public static final String SPELLCHECK_CONTEXT_ATTR_NAME = "com.oxygenxml.plugins.spellcheck.context";
+  /**
+   * The maximum number of words whose suggestions are cached.
+   */
+  private static final int SUGGESTIONS_CACHE_SIZE = 200;
   /**
    * Information for current spellcheck word error.
    */
@@ -29,6 +41,41 @@ public class SpellcheckContext {
    * list of ignored words
    */
   private List<SpellcheckWordInfo> ignoredWords = new ArrayList<>();
+  /**
+   * Suggestions for the words checked in this session, keyed by language and word, in LRU order.
+   */
+  private final Map<String, String[]> suggestionsCache = 
+      Collections.synchronizedMap(new LinkedHashMap<String, String[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+          return size() > SUGGESTIONS_CACHE_SIZE;
+        }
+      });
+  /**
+   * Version of the document content, incremented on every change.
+   */
+  private final AtomicInteger documentVersion = new AtomicInteger();
+  /**
+   * The controller whose changes are tracked.
+   */
+  private AuthorDocumentController trackedController;
+  /**
+   * Listener that tracks the document changes.
+   */
+  private final AuthorListener documentVersionTracker = new AuthorListenerAdapter() {
+    @Override
+    public void contentInserted(DocumentContentInsertedEvent e) {
+      documentVersion.incrementAndGet();
+    }
+    @Override
+    public void contentDeleted(DocumentContentDeletedEvent e) {
+      documentVersion.incrementAndGet();
+    }
+    @Override
+    public void documentChanged(AuthorDocument oldDocument, AuthorDocument newDocument) {
+      documentVersion.incrementAndGet();
+    }
+  };
   
   /**
    * Positions comparator for ignored words.
@@ -113,4 +160,57 @@ public class SpellcheckContext {
     }
     return ignored;
   }
+  
+  /**
+   * Start tracking the changes of the document, to keep the document version up to date.
+   * 
+   * @param controller The document controller.
+   */
+  public synchronized void trackDocumentChanges(AuthorDocumentController controller) {
+    if (this.trackedController == null) {
+      this.trackedController = controller;
+      controller.addAuthorListener(documentVersionTracker);
+    }
+  }
+  
+  /**
+   * Stop tracking the changes of the document.
+   */
+  public synchronized void stopTrackingDocumentChanges() {
+    if (this.trackedController != null) {
+      this.trackedController.removeAuthorListener(documentVersionTracker);
+      this.trackedController = null;
+    }
+  }
+  
+  /**
+   * @return The version of the document content. It changes whenever the document is edited.
+   */
+  public int getDocumentVersion() {
+    return documentVersion.get();
+  }
+  
+  /**
+   * Get the cached suggestions for a word.
+   * 
+   * @param word The word.
+   * @param language The language of the word.
+   * @return The suggestions, or <code>null</code> if they are not cached.
+   */
+  public String[] getCachedSuggestions(String word, String language) {
+    return suggestionsCache.get(language + '/' + word);
+  }
+  
+  /**
+   * Cache the suggestions for a word.
+   * 
+   * @param word The word.
+   * @param language The language of the word.
+   * @param suggestions The suggestions.
+   */
+  public void cacheSuggestions(String word, String language, String[] suggestions) {
+    if (suggestions != null) {
+      suggestionsCache.put(language + '/' + word, suggestions);
+    }
+  }
 }
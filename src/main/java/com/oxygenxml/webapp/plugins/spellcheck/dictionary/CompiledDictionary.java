@@ -0,0 +1,270 @@
+package com.oxygenxml.webapp.plugins.spellcheck.dictionary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A word list compiled by the {@link DictionaryCompiler} and mapped in memory.
+ *
+ * The file is a hash table with open addressing, filled at most to a half, followed by the words:
+ * <pre>
+ * header:  int magic, int format version, int slot count (a power of two), int word count,
+ *          long checksum of the words
+ * slots:   slot count x (int hash of the word, int offset of the word + 1, 0 for an empty slot)
+ * words:   word count x (short length, length x char)
+ * </pre>
+ *
+ * The file is read in place, so all the sessions share the same pages and a lookup does not allocate.
+ * The slots are checked when the file is opened, so that a corrupted file is rejected instead of
+ * making the lookups fail or loop.
+ * The lookups can run concurrently since they only use absolute reads.
+ */
+public class CompiledDictionary {
+
+  /**
+   * The first int of a compiled dictionary.
+   */
+  static final int MAGIC = 0x53504443;
+
+  /**
+   * The version of the format.
+   */
+  static final int FORMAT_VERSION = 1;
+
+  /**
+   * The size of the header, in bytes.
+   */
+  static final int HEADER_SIZE = 24;
+
+  /**
+   * The size of a slot, in bytes.
+   */
+  static final int SLOT_SIZE = 8;
+
+  /**
+   * The initial value of the FNV-1a hash.
+   */
+  static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+
+  /**
+   * The typographic apostrophe, looked up as the ASCII one.
+   */
+  private static final char RIGHT_SINGLE_QUOTATION_MARK = '\u2019';
+
+  /**
+   * The content of the file.
+   */
+  private final ByteBuffer buffer;
+
+  /**
+   * The slot count minus one.
+   */
+  private final int slotMask;
+
+  /**
+   * The number of words.
+   */
+  private final int wordCount;
+
+  /**
+   * The checksum of the words.
+   */
+  private final long checksum;
+
+  /**
+   * The position of the words.
+   */
+  private final int wordsStart;
+
+  /**
+   * Constructor.
+   *
+   * @param buffer The content of the file.
+   *
+   * @throws IOException If the content is not a compiled dictionary.
+   */
+  CompiledDictionary(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a compiled dictionary");
+    }
+    if (buffer.getInt(4) != FORMAT_VERSION) {
+      throw new IOException("Unsupported compiled dictionary version: " + buffer.getInt(4));
+    }
+    int slotCount = buffer.getInt(8);
+    this.wordCount = buffer.getInt(12);
+    this.checksum = buffer.getLong(16);
+    this.slotMask = slotCount - 1;
+    long slotsEnd = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+    if (slotCount <= 0 || (slotCount & slotMask) != 0 || slotsEnd > buffer.limit()) {
+      throw new IOException("Corrupted compiled dictionary");
+    }
+    this.wordsStart = (int) slotsEnd;
+    checkSlots(slotCount);
+  }
+
+  /**
+   * Check that the slots point to words inside the file and that at least one slot is empty,
+   * so that the lookups do not need to handle a corrupted file.
+   *
+   * @param slotCount The number of slots.
+   *
+   * @throws IOException If the slots are corrupted.
+   */
+  private void checkSlots(int slotCount) throws IOException {
+    boolean hasEmptySlot = false;
+    for (int slot = 0; slot < slotCount; slot++) {
+      int wordOffset = buffer.getInt(HEADER_SIZE + slot * SLOT_SIZE + 4);
+      if (wordOffset == 0) {
+        hasEmptySlot = true;
+      } else if (!isWordInside(wordsStart + (long) wordOffset - 1)) {
+        throw new IOException("Corrupted compiled dictionary, slot " + slot + " points outside the file");
+      }
+    }
+    if (!hasEmptySlot) {
+      throw new IOException("Corrupted compiled dictionary, no empty slot");
+    }
+  }
+
+  /**
+   * @param wordPosition The position of a word.
+   *
+   * @return <code>true</code> if the word, its length included, is inside the words of the file.
+   */
+  private boolean isWordInside(long wordPosition) {
+    return wordPosition >= wordsStart && wordPosition + 2 <= buffer.limit()
+        && wordPosition + 2 + 2L * buffer.getShort((int) wordPosition) <= buffer.limit();
+  }
+
+  /**
+   * Map a compiled dictionary file in memory.
+   *
+   * @param file The file.
+   *
+   * @return The dictionary.
+   *
+   * @throws IOException If the file cannot be read or is not a compiled dictionary.
+   */
+  public static CompiledDictionary open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      return new CompiledDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * @return The number of words.
+   */
+  public int getWordCount() {
+    return wordCount;
+  }
+
+  /**
+   * @return The checksum of the words, that changes when the word list changes.
+   */
+  public long getChecksum() {
+    return checksum;
+  }
+
+  /**
+   * Check if a word is in the dictionary, optionally converting the end of the word to lower case.
+   *
+   * @param text The text that contains the word.
+   * @param start The start of the word.
+   * @param end The end of the word, exclusive.
+   * @param lowerCaseFrom The position from which the characters are converted to lower case,
+   * <code>end</code> to look up the word as it is.
+   *
+   * @return <code>true</code> if the word is in the dictionary.
+   */
+  public boolean contains(CharSequence text, int start, int end, int lowerCaseFrom) {
+    int hash = FNV_OFFSET_BASIS;
+    for (int i = start; i < end; i++) {
+      hash = hashChar(hash, normalize(text.charAt(i), i >= lowerCaseFrom));
+    }
+    hash = finishHash(hash);
+
+    int length = end - start;
+    // The file has an empty slot, the probes are bounded in case it changed on disk since it was mapped.
+    int slot = hash & slotMask;
+    for (int probe = 0; probe <= slotMask; probe++, slot = (slot + 1) & slotMask) {
+      int slotPosition = HEADER_SIZE + slot * SLOT_SIZE;
+      int wordOffset = buffer.getInt(slotPosition + 4);
+      if (wordOffset == 0) {
+        return false;
+      }
+      if (buffer.getInt(slotPosition) == hash) {
+        long wordPosition = wordsStart + (long) wordOffset - 1;
+        if (isWordInside(wordPosition) && buffer.getShort((int) wordPosition) == length
+            && matches(text, start, end, lowerCaseFrom, (int) wordPosition + 2)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Compare a word with a word of the dictionary.
+   *
+   * @param text The text that contains the word.
+   * @param start The start of the word.
+   * @param end The end of the word, exclusive.
+   * @param lowerCaseFrom The position from which the characters are converted to lower case.
+   * @param charsPosition The position of the characters of the word in the dictionary.
+   *
+   * @return <code>true</code> if the words are equal.
+   */
+  private boolean matches(CharSequence text, int start, int end, int lowerCaseFrom, int charsPosition) {
+    for (int i = start; i < end; i++) {
+      if (buffer.getChar(charsPosition + (i - start) * 2) != normalize(text.charAt(i), i >= lowerCaseFrom)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Normalize a character before a lookup.
+   *
+   * @param c The character.
+   * @param lowerCase <code>true</code> to convert it to lower case.
+   *
+   * @return The normalized character.
+   */
+  static char normalize(char c, boolean lowerCase) {
+    if (c == RIGHT_SINGLE_QUOTATION_MARK) {
+      return '\'';
+    }
+    return lowerCase ? Character.toLowerCase(c) : c;
+  }
+
+  /**
+   * Add a character to a FNV-1a hash.
+   *
+   * @param hash The hash.
+   * @param c The character.
+   *
+   * @return The new hash.
+   */
+  static int hashChar(int hash, char c) {
+    return (hash ^ c) * 0x01000193;
+  }
+
+  /**
+   * Mix the bits of a hash, so that the low bits used to pick a slot depend on all the characters.
+   *
+   * @param hash The hash.
+   *
+   * @return The final hash.
+   */
+  static int finishHash(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    return hash;
+  }
+}
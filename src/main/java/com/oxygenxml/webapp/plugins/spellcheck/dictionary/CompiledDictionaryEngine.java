@@ -0,0 +1,320 @@
+package com.oxygenxml.webapp.plugins.spellcheck.dictionary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckExecutor;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckMetrics;
+
+import lombok.extern.slf4j.Slf4j;
+import ro.sync.ecss.extensions.api.SpellCheckingProblemInfo;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+import ro.sync.exml.workspace.api.util.TextChunkDescriptor;
+
+/**
+ * Spellchecks the text in process, using the compiled dictionaries, and falls back to the host spellchecker
+ * for the languages without a compiled dictionary.
+ *
+ * The compiled dictionaries are used only when the
+ * <code>com.oxygenxml.webapp.plugins.spellcheck.useCompiledDictionaries</code> system property is
+ * <code>true</code>. They are loaded from the directory given by the
+ * <code>com.oxygenxml.webapp.plugins.spellcheck.compiledDictionaryDir</code> system property, or else from
+ * the <code>dictionaries</code> folder of the plugin. A dictionary named <code>en_US.dict</code> is used for
+ * the <code>en_US</code> language, and one named <code>en.dict</code> for all the English variants.
+ * When there is no compiled dictionary, all the text is checked by the host spellchecker.
+ *
+ * A word found in a compiled dictionary is correct. The other words are sent to the host spellchecker, 
+ * which applies the learned words and the spellcheck options, so only the confirmed problems are reported.
+ * Since most words are found in the dictionary, the host spellchecker receives only a small part of the text.
+ *
+ * Only the problems are found in process. The suggestions are still computed by the host spellchecker,
+ * when they are requested.
+ */
+@Slf4j
+public class CompiledDictionaryEngine {
+
+  /**
+   * Characters that join words into a name that is not checked, like a file path or an email address.
+   */
+  private static final String NAME_SEPARATORS = "/\\@_";
+
+  /**
+   * The shared instance.
+   */
+  private static final CompiledDictionaryEngine INSTANCE = new CompiledDictionaryEngine(
+      Boolean.getBoolean(SpellcheckExecutor.PROPERTY_PREFIX + "useCompiledDictionaries"),
+      System.getProperty(SpellcheckExecutor.PROPERTY_PREFIX + "compiledDictionaryDir"));
+
+  /**
+   * <code>true</code> if the compiled dictionaries are used.
+   */
+  private final boolean enabled;
+
+  /**
+   * <code>true</code> if the directory of the dictionaries was given by the system property.
+   */
+  private final boolean configured;
+
+  /**
+   * The compiled dictionaries, by language.
+   */
+  private volatile Map<String, CompiledDictionary> dictionaries = Collections.emptyMap();
+
+  /**
+   * Constructor.
+   *
+   * @param enabled <code>true</code> to use the compiled dictionaries.
+   * @param dictionaryDir The directory of the compiled dictionaries, <code>null</code> to use the default one.
+   */
+  public CompiledDictionaryEngine(boolean enabled, String dictionaryDir) {
+    this.enabled = enabled;
+    this.configured = dictionaryDir != null && !dictionaryDir.isEmpty();
+    if (enabled && configured) {
+      loadDictionaries(Paths.get(dictionaryDir));
+    }
+  }
+
+  /**
+   * @return The node-wide engine.
+   */
+  public static CompiledDictionaryEngine getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Load the dictionaries shipped with the plugin, if the compiled dictionaries are used and no other 
+   * directory was configured.
+   *
+   * @param dictionaryDir The directory of the dictionaries shipped with the plugin.
+   */
+  public void loadDefaultDictionaries(Path dictionaryDir) {
+    if (enabled && !configured && Files.isDirectory(dictionaryDir)) {
+      loadDictionaries(dictionaryDir);
+    }
+  }
+
+  /**
+   * Load the compiled dictionaries from a directory, replacing the loaded ones.
+   *
+   * @param dictionaryDir The directory.
+   */
+  void loadDictionaries(Path dictionaryDir) {
+    Map<String, CompiledDictionary> loaded = new HashMap<>();
+    List<Path> files;
+    try (Stream<Path> children = Files.list(dictionaryDir)) {
+      files = children.filter(file -> file.getFileName().toString().endsWith(DictionaryCompiler.DICTIONARY_EXTENSION))
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      log.warn("Cannot list the compiled dictionaries in " + dictionaryDir + ": " + e.getMessage());
+      files = Collections.emptyList();
+    }
+    for (Path file : files) {
+      String fileName = file.getFileName().toString();
+      String language = fileName.substring(0, fileName.length() - DictionaryCompiler.DICTIONARY_EXTENSION.length());
+      try {
+        CompiledDictionary dictionary = CompiledDictionary.open(file);
+        loaded.put(language, dictionary);
+        log.info("Loaded the compiled dictionary of " + language + " with " + dictionary.getWordCount() + " words");
+      } catch (IOException e) {
+        log.warn("Cannot load the compiled dictionary " + file + ": " + e.getMessage());
+      }
+    }
+    dictionaries = Collections.unmodifiableMap(loaded);
+  }
+
+  /**
+   * Get the compiled dictionary of a language.
+   *
+   * @param language The language, like <code>en_US</code>.
+   *
+   * @return The dictionary, or <code>null</code> if the language has no compiled dictionary.
+   */
+  CompiledDictionary getDictionary(String language) {
+    Map<String, CompiledDictionary> currentDictionaries = dictionaries;
+    if (language == null || currentDictionaries.isEmpty()) {
+      return null;
+    }
+    String normalizedLanguage = language.replace('-', '_');
+    CompiledDictionary dictionary = currentDictionaries.get(normalizedLanguage);
+    int separator = normalizedLanguage.indexOf('_');
+    if (dictionary == null && separator > 0) {
+      dictionary = currentDictionaries.get(normalizedLanguage.substring(0, separator));
+    }
+    return dictionary;
+  }
+
+  /**
+   * Get the version of the dictionary used for a language, which changes when its words change.
+   *
+   * @param language The language.
+   *
+   * @return The version, empty if the host spellchecker is used for the language.
+   */
+  public String getDictionaryVersion(String language) {
+    CompiledDictionary dictionary = getDictionary(language);
+    return dictionary != null ? Long.toHexString(dictionary.getChecksum()) : "";
+  }
+
+  /**
+   * Spellcheck a text chunk.
+   *
+   * @param spellchecker The host spellchecker, used when the language has no compiled dictionary.
+   * @param textDescriptor The text chunk.
+   *
+   * @return The problems, with offsets relative to the document.
+   *
+   * @throws IOException If the spellcheck fails.
+   */
+  public List<SpellCheckingProblemInfo> check(WebappSpellchecker spellchecker, TextChunkDescriptor textDescriptor)
+      throws IOException {
+    List<TextChunkDescriptor> unknownWords = findUnknownWords(textDescriptor);
+    if (unknownWords == null) {
+      List<SpellCheckingProblemInfo> problems = spellchecker.check(Collections.singletonList(textDescriptor));
+      return problems != null ? problems : Collections.<SpellCheckingProblemInfo>emptyList();
+    }
+    return confirmProblems(spellchecker, unknownWords);
+  }
+
+  /**
+   * Find the words of a text chunk that are not in the compiled dictionary of its language.
+   *
+   * The result depends only on the text and the dictionary, not on the user, so it can be shared by all
+   * the sessions.
+   *
+   * @param textDescriptor The text chunk.
+   *
+   * @return The unknown words, with offsets relative to the document, or <code>null</code> if the language
+   * has no compiled dictionary.
+   */
+  public List<TextChunkDescriptor> findUnknownWords(TextChunkDescriptor textDescriptor) {
+    CompiledDictionary dictionary = null;
+    if (textDescriptor != null && textDescriptor.getTextChunk() != null) {
+      dictionary = getDictionary(textDescriptor.getLanguage());
+    }
+    if (dictionary == null) {
+      return null;
+    }
+
+    String text = textDescriptor.getTextChunk();
+    SpellcheckMetrics.getInstance().recordCompiledDictionaryCheck(text.length());
+    List<TextChunkDescriptor> unknownWords = new ArrayList<>();
+    int length = text.length();
+    int i = 0;
+    while (i < length) {
+      if (!isWordChar(text.charAt(i))) {
+        i++;
+        continue;
+      }
+      int start = i;
+      boolean hasDigits = false;
+      // An apostrophe followed by a letter is part of the word.
+      while (i < length && (isWordChar(text.charAt(i))
+          || isApostrophe(text.charAt(i)) && i + 1 < length && isWordChar(text.charAt(i + 1)))) {
+        hasDigits |= Character.isDigit(text.charAt(i));
+        i++;
+      }
+      if (!hasDigits && i - start > 1 && !isPartOfName(text, start, i)
+          && !isCorrect(dictionary, text, start, i)) {
+        unknownWords.add(new TextChunkDescriptor(
+            text.substring(start, i), textDescriptor.getOffset() + start, textDescriptor.getLanguage()));
+      }
+    }
+    return unknownWords;
+  }
+
+  /**
+   * Send the words missing from a compiled dictionary to the host spellchecker, which confirms the problems
+   * applying the learned words and the spellcheck options of the user.
+   *
+   * @param spellchecker The host spellchecker.
+   * @param unknownWords The unknown words, found by {@link #findUnknownWords(TextChunkDescriptor)}.
+   *
+   * @return The problems, with offsets relative to the document.
+   *
+   * @throws IOException If the spellcheck fails.
+   */
+  public List<SpellCheckingProblemInfo> confirmProblems(WebappSpellchecker spellchecker,
+      List<TextChunkDescriptor> unknownWords) throws IOException {
+    if (unknownWords.isEmpty()) {
+      return Collections.emptyList();
+    }
+    SpellcheckMetrics.getInstance().recordCompiledDictionaryMisses(unknownWords.size());
+    List<SpellCheckingProblemInfo> problems = spellchecker.check(unknownWords);
+    return problems != null ? problems : Collections.<SpellCheckingProblemInfo>emptyList();
+  }
+
+  /**
+   * Check a word, accepting the capitalized and the upper case forms of the words of the dictionary.
+   *
+   * @param dictionary The dictionary.
+   * @param text The text.
+   * @param start The start of the word.
+   * @param end The end of the word, exclusive.
+   *
+   * @return <code>true</code> if the word is correct.
+   */
+  private static boolean isCorrect(CompiledDictionary dictionary, String text, int start, int end) {
+    if (dictionary.contains(text, start, end, end)) {
+      return true;
+    }
+    if (!Character.isUpperCase(text.charAt(start))) {
+      return false;
+    }
+    boolean hasUpperCaseTail = false;
+    boolean hasLowerCaseTail = false;
+    for (int i = start + 1; i < end; i++) {
+      hasUpperCaseTail |= Character.isUpperCase(text.charAt(i));
+      hasLowerCaseTail |= Character.isLowerCase(text.charAt(i));
+    }
+    boolean allUpperCase = !hasLowerCaseTail;
+    // "Word" and "WORD" are accepted for "word", and "WORD" for "Word".
+    return (allUpperCase || !hasUpperCaseTail) && dictionary.contains(text, start, end, start)
+        || allUpperCase && dictionary.contains(text, start, end, start + 1);
+  }
+
+  /**
+   * Check if a word is part of a name that is not checked, like <code>example.com</code>,
+   * <code>user@example</code> or <code>path/to/file</code>.
+   *
+   * @param text The text.
+   * @param start The start of the word.
+   * @param end The end of the word, exclusive.
+   *
+   * @return <code>true</code> if the word is part of a name.
+   */
+  private static boolean isPartOfName(String text, int start, int end) {
+    char before = start > 0 ? text.charAt(start - 1) : ' ';
+    char after = end < text.length() ? text.charAt(end) : ' ';
+    return NAME_SEPARATORS.indexOf(before) != -1 || NAME_SEPARATORS.indexOf(after) != -1
+        || before == '.' && start > 1 && isWordChar(text.charAt(start - 2))
+        || after == '.' && end + 1 < text.length() && isWordChar(text.charAt(end + 1));
+  }
+
+  /**
+   * @param c A character.
+   *
+   * @return <code>true</code> if the character can be part of a word.
+   */
+  private static boolean isWordChar(char c) {
+    int type = Character.getType(c);
+    return Character.isLetterOrDigit(c) || type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+  }
+
+  /**
+   * @param c A character.
+   *
+   * @return <code>true</code> if the character is an apostrophe.
+   */
+  private static boolean isApostrophe(char c) {
+    return CompiledDictionary.normalize(c, false) == '\'';
+  }
+}
@@ -0,0 +1,162 @@
+package com.oxygenxml.webapp.plugins.spellcheck.dictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Compiles word lists into the format read by {@link CompiledDictionary}.
+ *
+ * Each word list is a UTF-8 file named after its language, for example <code>en_US.txt</code>, with one word
+ * per line. Empty lines and lines that start with <code>#</code> are skipped. The words must be fully
+ * inflected, since the compiled dictionary does not apply affix rules. A Hunspell dictionary can be
+ * expanded with its <code>unmunch</code> tool.
+ *
+ * Run it with the <code>compile-dictionaries</code> Maven profile, or with:
+ * <pre>
+ * java -cp ... com.oxygenxml.webapp.plugins.spellcheck.dictionary.DictionaryCompiler \
+ *   wordLists=/path/to/word-lists output=/path/to/dictionaries
+ * </pre>
+ */
+public class DictionaryCompiler {
+
+  /**
+   * The extension of the word lists.
+   */
+  static final String WORD_LIST_EXTENSION = ".txt";
+
+  /**
+   * The extension of the compiled dictionaries.
+   */
+  static final String DICTIONARY_EXTENSION = ".dict";
+
+  /**
+   * Private constructor.
+   */
+  private DictionaryCompiler() {
+    // Only static methods.
+  }
+
+  /**
+   * Entry point.
+   *
+   * @param args The <code>name=value</code> arguments: <code>wordLists</code>, the directory of the word
+   * lists, and <code>output</code>, the directory of the compiled dictionaries.
+   *
+   * @throws IOException If a word list cannot be read or a dictionary cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("Expected name=value but got: " + arg);
+      }
+      options.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+    if (!options.containsKey("wordLists") || !options.containsKey("output")) {
+      throw new IllegalArgumentException("Expected the wordLists and output arguments");
+    }
+
+    Path outputDir = Files.createDirectories(Paths.get(options.get("output")));
+    List<Path> wordLists;
+    try (Stream<Path> children = Files.list(Paths.get(options.get("wordLists")))) {
+      wordLists = children.filter(file -> file.getFileName().toString().endsWith(WORD_LIST_EXTENSION))
+          .sorted().collect(Collectors.toList());
+    }
+    for (Path wordList : wordLists) {
+      String fileName = wordList.getFileName().toString();
+      String language = fileName.substring(0, fileName.length() - WORD_LIST_EXTENSION.length());
+      Path output = outputDir.resolve(language + DICTIONARY_EXTENSION);
+      int wordCount = compile(Files.readAllLines(wordList, StandardCharsets.UTF_8), output);
+      System.out.println("Compiled " + wordCount + " words of " + language + " into " + output);
+    }
+  }
+
+  /**
+   * Compile a word list.
+   *
+   * @param lines The lines of the word list.
+   * @param output The compiled dictionary file.
+   *
+   * @return The number of words.
+   *
+   * @throws IOException If the dictionary cannot be written.
+   */
+  public static int compile(Collection<String> lines, Path output) throws IOException {
+    SortedSet<String> words = new TreeSet<>();
+    for (String line : lines) {
+      String word = line.trim();
+      if (!word.isEmpty() && !word.startsWith("#") && word.length() <= Short.MAX_VALUE) {
+        StringBuilder normalized = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+          normalized.append(CompiledDictionary.normalize(word.charAt(i), false));
+        }
+        words.add(normalized.toString());
+      }
+    }
+
+    int slotCount = 2;
+    while (slotCount < words.size() * 2L) {
+      slotCount *= 2;
+    }
+    int[] slots = new int[slotCount * 2];
+    ByteArrayOutputStream wordBytes = new ByteArrayOutputStream();
+    DataOutputStream wordData = new DataOutputStream(wordBytes);
+    Hasher checksum = Hashing.sha256().newHasher().putInt(CompiledDictionary.FORMAT_VERSION);
+    for (String word : words) {
+      int hash = CompiledDictionary.FNV_OFFSET_BASIS;
+      for (int i = 0; i < word.length(); i++) {
+        hash = CompiledDictionary.hashChar(hash, word.charAt(i));
+      }
+      hash = CompiledDictionary.finishHash(hash);
+
+      int slot = hash & (slotCount - 1);
+      while (slots[slot * 2 + 1] != 0) {
+        slot = (slot + 1) & (slotCount - 1);
+      }
+      slots[slot * 2] = hash;
+      slots[slot * 2 + 1] = wordData.size() + 1;
+
+      wordData.writeShort(word.length());
+      wordData.writeChars(word);
+      checksum.putString(word, StandardCharsets.UTF_8).putChar('\n');
+    }
+
+    Files.createDirectories(output.toAbsolutePath().getParent());
+    Path tempFile = Files.createTempFile(output.toAbsolutePath().getParent(), output.getFileName().toString(), ".tmp");
+    try (OutputStream out = Files.newOutputStream(tempFile)) {
+      DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+      data.writeInt(CompiledDictionary.MAGIC);
+      data.writeInt(CompiledDictionary.FORMAT_VERSION);
+      data.writeInt(slotCount);
+      data.writeInt(words.size());
+      data.writeLong(checksum.hash().asLong());
+      for (int value : slots) {
+        data.writeInt(value);
+      }
+      wordBytes.writeTo(data);
+      data.flush();
+    }
+    Files.move(tempFile, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return words.size();
+  }
+}
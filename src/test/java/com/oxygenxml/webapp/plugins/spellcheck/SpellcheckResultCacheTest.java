@@ -0,0 +1,246 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.oxygenxml.webapp.plugins.spellcheck.dictionary.CompiledDictionaryEngine;
+import com.oxygenxml.webapp.plugins.spellcheck.dictionary.DictionaryCompiler;
+
+import ro.sync.ecss.extensions.api.SpellCheckingProblemInfo;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+import ro.sync.exml.workspace.api.util.TextChunkDescriptor;
+
+/**
+ * Tests for {@link SpellcheckResultCache}.
+ */
+public class SpellcheckResultCacheTest {
+
+  /**
+   * The size of an entry without unknown words: the overhead and the empty JSON array.
+   */
+  private static final long EMPTY_ENTRY_SIZE = 4096 + "[]".length();
+
+  /**
+   * The language of the checked text, that has a compiled dictionary.
+   */
+  private static final String LANGUAGE = "en_US";
+
+  /**
+   * The directory of the cache.
+   */
+  @Rule
+  public TemporaryFolder cacheDir = new TemporaryFolder();
+
+  /**
+   * The directory of the compiled dictionaries.
+   */
+  @Rule
+  public TemporaryFolder dictionaryDir = new TemporaryFolder();
+
+  /**
+   * The texts sent to the host spellchecker.
+   */
+  private final List<String> checkedTexts = new ArrayList<>();
+
+  /**
+   * The words learned by the user.
+   */
+  private final Set<String> learnedWords = new HashSet<>();
+
+  /**
+   * The host spellchecker stand-in, which reports the words containing "qz" that were not learned
+   * and records the checked texts.
+   */
+  private final WebappSpellchecker spellchecker = StandIn.spellchecker(
+      word -> word.contains("qz") && !learnedWords.contains(word), checkedTexts);
+
+  /**
+   * The engine that uses the compiled dictionary.
+   */
+  private CompiledDictionaryEngine engine;
+
+  /**
+   * The caches created by the test.
+   */
+  private final List<SpellcheckResultCache> caches = new ArrayList<>();
+
+  /**
+   * Compile the dictionary of the test language.
+   */
+  @Before
+  public void setUp() throws IOException {
+    DictionaryCompiler.compile(Arrays.asList("ab", "alpha", "beta", "gamma", "delta"),
+        dictionaryDir.getRoot().toPath().resolve(LANGUAGE + ".dict"));
+    engine = new CompiledDictionaryEngine(true, dictionaryDir.getRoot().getPath());
+  }
+
+  /**
+   * Release the directory of the cache.
+   */
+  @After
+  public void tearDown() {
+    caches.forEach(SpellcheckResultCache::close);
+  }
+
+  /**
+   * When the cache is full, the least recently used entry is evicted, on disk too.
+   */
+  @Test
+  public void testLeastRecentlyUsedEntryIsEvicted() throws IOException {
+    SpellcheckResultCache cache = createCache(3 * EMPTY_ENTRY_SIZE, "");
+    long misses = getMisses();
+    check(cache, "alpha");
+    check(cache, "beta");
+    check(cache, "gamma");
+    // Now alpha is more recently used than beta.
+    check(cache, "alpha");
+    check(cache, "delta");
+    assertEquals(4, getMisses() - misses);
+    assertEquals(3, countEntryFiles());
+
+    misses = getMisses();
+    check(cache, "alpha");
+    check(cache, "delta");
+    assertEquals(0, getMisses() - misses);
+    check(cache, "beta");
+    assertEquals(1, getMisses() - misses);
+    assertEquals(3, countEntryFiles());
+  }
+
+  /**
+   * The entries are loaded in a new cache and the unknown words are moved to the offset of the chunk,
+   * where the host spellchecker confirms them.
+   */
+  @Test
+  public void testEntriesAreReusedAtAnotherOffset() throws IOException {
+    SpellcheckResultCache cache = createCache(1024 * 1024, "");
+    List<SpellCheckingProblemInfo> problems = 
+        cache.check(spellchecker, new TextChunkDescriptor("ab qzc", 100, LANGUAGE));
+    assertEquals(1, problems.size());
+    assertEquals(103, problems.get(0).getStartOffset());
+    cache.close();
+
+    checkedTexts.clear();
+    long misses = getMisses();
+    SpellcheckResultCache reloadedCache = createCache(1024 * 1024, "");
+    problems = reloadedCache.check(spellchecker, new TextChunkDescriptor("ab qzc", 500, LANGUAGE));
+    assertEquals(0, getMisses() - misses);
+    assertEquals(Collections.singletonList("qzc"), checkedTexts);
+    assertEquals(1, problems.size());
+    assertEquals(503, problems.get(0).getStartOffset());
+    assertEquals(505, problems.get(0).getEndOffset());
+    assertEquals("qzc", problems.get(0).getWord());
+  }
+
+  /**
+   * The problems are confirmed for the current user on each check, so a learned word is no longer reported
+   * even if the text was cached.
+   */
+  @Test
+  public void testLearnedWordsApplyToCachedText() throws IOException {
+    SpellcheckResultCache cache = createCache(1024 * 1024, "");
+    assertEquals(1, cache.check(spellchecker, new TextChunkDescriptor("ab qzc", 0, LANGUAGE)).size());
+
+    learnedWords.add("qzc");
+    long misses = getMisses();
+    assertEquals(0, cache.check(spellchecker, new TextChunkDescriptor("ab qzc", 0, LANGUAGE)).size());
+    assertEquals(0, getMisses() - misses);
+  }
+
+  /**
+   * The text of a language without a compiled dictionary is checked by the host spellchecker and not cached.
+   */
+  @Test
+  public void testLanguageWithoutCompiledDictionaryIsNotCached() throws IOException {
+    SpellcheckResultCache cache = createCache(1024 * 1024, "");
+    cache.check(spellchecker, new TextChunkDescriptor("ab qzc", 0, "fr_FR"));
+    cache.check(spellchecker, new TextChunkDescriptor("ab qzc", 0, "fr_FR"));
+    assertEquals(Arrays.asList("ab qzc", "ab qzc"), checkedTexts);
+    assertEquals(0, countEntryFiles());
+  }
+
+  /**
+   * The entries of another dictionary version are not used.
+   */
+  @Test
+  public void testDictionaryVersionIsPartOfTheKey() throws IOException {
+    long misses = getMisses();
+    SpellcheckResultCache cache = createCache(1024 * 1024, "1");
+    check(cache, "alpha");
+    cache.close();
+    check(createCache(1024 * 1024, "2"), "alpha");
+    assertEquals(2, getMisses() - misses);
+  }
+
+  /**
+   * A directory used by another cache is not used, since the size of the cache is tracked in memory.
+   */
+  @Test
+  public void testDirectoryIsNotShared() {
+    assertTrue(createCache(1024 * 1024, "").isEnabled());
+    assertFalse(createCache(1024 * 1024, "").isEnabled());
+  }
+
+  /**
+   * Create a cache in the directory of the test.
+   *
+   * @param maxSize The maximum size of the cache.
+   * @param dictionaryVersion The version that is part of the key.
+   *
+   * @return The cache.
+   */
+  private SpellcheckResultCache createCache(long maxSize, String dictionaryVersion) {
+    SpellcheckResultCache cache = new SpellcheckResultCache(
+        cacheDir.getRoot().getPath(), maxSize, dictionaryVersion, engine);
+    caches.add(cache);
+    return cache;
+  }
+
+  /**
+   * Check a text at the start of the document.
+   *
+   * @param cache The cache.
+   * @param text The text.
+   *
+   * @throws IOException If the spellcheck fails.
+   */
+  private void check(SpellcheckResultCache cache, String text) throws IOException {
+    cache.check(spellchecker, new TextChunkDescriptor(text, 0, LANGUAGE));
+  }
+
+  /**
+   * @return The number of cache misses of the node so far.
+   */
+  private static long getMisses() {
+    return SpellcheckMetrics.getInstance().getResultCacheMisses();
+  }
+
+  /**
+   * @return The number of entries on disk.
+   *
+   * @throws IOException If the cache directory cannot be read.
+   */
+  private long countEntryFiles() throws IOException {
+    try (Stream<Path> files = Files.walk(cacheDir.getRoot().toPath())) {
+      return files.filter(file -> file.getFileName().toString().endsWith(".json")).count();
+    }
+  }
+}
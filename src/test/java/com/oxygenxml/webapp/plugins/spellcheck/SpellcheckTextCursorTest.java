@@ -0,0 +1,137 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.text.BadLocationException;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link SpellcheckTextCursor}.
+ */
+public class SpellcheckTextCursorTest {
+
+  /**
+   * The chunks are cut after the last boundary before the multiple of the chunk length.
+   */
+  @Test
+  public void testBoundaryBeforeGridOffset() throws BadLocationException {
+    String text = letters(995) + " " + letters(2004);
+    assertEquals(Arrays.asList(0, 996, 996, 2000, 2000, 3000), walk(text, 0, text.length(), true));
+  }
+
+  /**
+   * When there is no boundary before the multiple of the chunk length, the chunk is cut at the first
+   * boundary after it.
+   */
+  @Test
+  public void testBoundaryAfterGridOffset() throws BadLocationException {
+    String text = letters(1010) + " " + letters(989);
+    assertEquals(Arrays.asList(0, 1010, 1010, 2000), walk(text, 0, text.length(), true));
+  }
+
+  /**
+   * The node boundaries, represented by control characters, separate words too.
+   */
+  @Test
+  public void testControlCharacterBoundary() throws BadLocationException {
+    String text = letters(990) + "\u0000" + letters(1009);
+    assertEquals(Arrays.asList(0, 991, 991, 2000), walk(text, 0, text.length(), true));
+  }
+
+  /**
+   * A token longer than the search window is cut at the multiple of the chunk length.
+   */
+  @Test
+  public void testLongTokenIsCutAtGridOffset() throws BadLocationException {
+    String text = letters(2500);
+    assertEquals(Arrays.asList(0, 1000, 1000, 2000, 2000, 2500), walk(text, 0, text.length(), true));
+  }
+
+  /**
+   * With whole chunks, any interval is split in the same chunks as the whole document,
+   * so that the cached results of the chunks can be reused.
+   */
+  @Test
+  public void testWholeChunksAreAlignedToGrid() throws BadLocationException {
+    String text = letters(1010) + " " + letters(989);
+    assertEquals(Arrays.asList(1010, 2000), walk(text, 1500, 1600, true));
+    assertEquals(Arrays.asList(0, 1010), walk(text, 200, 300, true));
+  }
+
+  /**
+   * With whole chunks, an interval that starts just before the start of a chunk begins with the previous chunk.
+   */
+  @Test
+  public void testWholeChunksStartBeforeShiftedBoundary() throws BadLocationException {
+    String text = letters(1010) + " " + letters(989);
+    assertEquals(Arrays.asList(0, 1010, 1010, 2000), walk(text, 1005, 1500, true));
+  }
+
+  /**
+   * Without whole chunks, the interval is only extended to the boundaries of the words at its ends.
+   */
+  @Test
+  public void testIntervalExtendedToWordBoundaries() throws BadLocationException {
+    String text = "hello world again more";
+    assertEquals(Arrays.asList(6, 17), walk(text, 8, 13, false));
+  }
+
+  /**
+   * Without whole chunks, when no boundary is found close to the ends of the interval,
+   * the interval is extended by the search length.
+   */
+  @Test
+  public void testIntervalExtensionFallback() throws BadLocationException {
+    String text = letters(300);
+    assertEquals(Arrays.asList(86, 224), walk(text, 150, 160, false));
+  }
+
+  /**
+   * Without whole chunks, the interval is not extended past the document.
+   */
+  @Test
+  public void testIntervalExtensionStopsAtDocumentEnds() throws BadLocationException {
+    String text = letters(200);
+    assertEquals(Arrays.asList(0, 200), walk(text, 30, 160, false));
+  }
+
+  /**
+   * Walk an interval of a text.
+   *
+   * @param text The text.
+   * @param start The start offset of the interval.
+   * @param end The end offset of the interval.
+   * @param wholeChunks <code>true</code> to extend the interval to whole chunks.
+   *
+   * @return The start and end offsets of the chunks.
+   *
+   * @throws BadLocationException If the text cannot be read.
+   */
+  private static List<Integer> walk(String text, int start, int end, boolean wholeChunks)
+      throws BadLocationException {
+    SpellcheckTextCursor cursor = new SpellcheckTextCursor(
+        StandIn.textController(text), start, end, text.length(), wholeChunks);
+    List<Integer> chunks = new ArrayList<>();
+    while (cursor.advance()) {
+      chunks.add(cursor.getChunkStart());
+      chunks.add(cursor.getChunkEnd());
+    }
+    return chunks;
+  }
+
+  /**
+   * @param count The number of letters.
+   *
+   * @return A token made of letters.
+   */
+  private static String letters(int count) {
+    char[] letters = new char[count];
+    Arrays.fill(letters, 'a');
+    return new String(letters);
+  }
+}
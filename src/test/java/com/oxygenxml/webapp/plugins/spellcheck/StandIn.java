@@ -0,0 +1,197 @@
+package com.oxygenxml.webapp.plugins.spellcheck;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
+
+import ro.sync.ecss.extensions.api.AuthorDocumentController;
+import ro.sync.ecss.extensions.api.SpellCheckingProblemInfo;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+import ro.sync.exml.workspace.api.util.TextChunkDescriptor;
+
+/**
+ * Builder of stand-ins for the host API interfaces, used by the tests and the load tools.
+ *
+ * A stand-in is a dynamic proxy that implements only the given methods. The {@link Object} methods use
+ * the identity of the proxy and the other methods fail, so that a test notices when the plugin starts
+ * to use another part of the host API.
+ *
+ * @param <T> The type of the stand-in.
+ */
+public class StandIn<T> {
+
+  /**
+   * The implementation of a method of a stand-in.
+   */
+  @FunctionalInterface
+  public interface MethodBody {
+    /**
+     * Run the method.
+     *
+     * @param args The arguments of the call.
+     *
+     * @return The result of the call.
+     *
+     * @throws Throwable The failure of the call.
+     */
+    Object invoke(Object[] args) throws Throwable;
+  }
+
+  /**
+   * The type of the stand-in.
+   */
+  private final Class<T> type;
+
+  /**
+   * The implemented methods, by name.
+   */
+  private final Map<String, MethodBody> methods = new HashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param type The type of the stand-in.
+   */
+  private StandIn(Class<T> type) {
+    this.type = type;
+  }
+
+  /**
+   * Start building a stand-in.
+   *
+   * @param type The interface of the stand-in.
+   *
+   * @return The builder.
+   */
+  public static <T> StandIn<T> of(Class<T> type) {
+    return new StandIn<>(type);
+  }
+
+  /**
+   * Implement a method. All the overloads of the method share the implementation.
+   *
+   * @param methodName The name of the method.
+   * @param body The implementation.
+   *
+   * @return This builder.
+   */
+  public StandIn<T> on(String methodName, MethodBody body) {
+    methods.put(methodName, body);
+    return this;
+  }
+
+  /**
+   * @return The stand-in.
+   */
+  public T create() {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+        (proxy, method, args) -> {
+          MethodBody body = methods.get(method.getName());
+          if (body != null) {
+            return body.invoke(args);
+          }
+          switch (method.getName()) {
+            case "equals":
+              return proxy == args[0];
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "toString":
+              return "Stand-in " + type.getSimpleName();
+            default:
+              throw new UnsupportedOperationException("Not implemented by the stand-in: " + method.getName());
+          }
+        }));
+  }
+
+  /**
+   * @param text The text of the document.
+   *
+   * @return A document controller stand-in that only reads the text.
+   */
+  public static AuthorDocumentController textController(String text) {
+    char[] chars = text.toCharArray();
+    return of(AuthorDocumentController.class)
+        .on("getChars", args -> {
+          readChars(chars, (Integer) args[0], (Integer) args[1], (Segment) args[2]);
+          return null;
+        })
+        .create();
+  }
+
+  /**
+   * Implementation of {@link AuthorDocumentController#getChars(int, int, Segment)} over a text.
+   *
+   * @param text The text of the document.
+   * @param offset The offset of the first character.
+   * @param length The number of characters.
+   * @param segment The segment that receives the characters.
+   *
+   * @throws BadLocationException If the interval is not in the text.
+   */
+  public static void readChars(char[] text, int offset, int length, Segment segment) throws BadLocationException {
+    if (offset < 0 || length < 0 || offset + length > text.length) {
+      throw new BadLocationException("Outside the document", offset);
+    }
+    segment.array = text;
+    segment.offset = offset;
+    segment.count = length;
+  }
+
+  /**
+   * Create a spellchecker stand-in that only checks text.
+   *
+   * @param isMisspelled Decides which words are misspelled.
+   * @param checkedTexts Receives the checked texts, <code>null</code> to not record them.
+   *
+   * @return The spellchecker stand-in.
+   */
+  public static WebappSpellchecker spellchecker(Predicate<String> isMisspelled, List<String> checkedTexts) {
+    return of(WebappSpellchecker.class)
+        .on("check", args -> {
+          List<SpellCheckingProblemInfo> problems = new ArrayList<>();
+          for (Object descriptor : (List<?>) args[0]) {
+            TextChunkDescriptor textDescriptor = (TextChunkDescriptor) descriptor;
+            if (checkedTexts != null) {
+              checkedTexts.add(textDescriptor.getTextChunk());
+            }
+            problems.addAll(findMisspelledWords(textDescriptor, isMisspelled));
+          }
+          return problems;
+        })
+        .create();
+  }
+
+  /**
+   * Find the misspelled words of a text chunk. The words are the runs of letters.
+   *
+   * @param descriptor The text chunk.
+   * @param isMisspelled Decides which words are misspelled.
+   *
+   * @return The problems, with document offsets.
+   */
+  public static List<SpellCheckingProblemInfo> findMisspelledWords(TextChunkDescriptor descriptor,
+      Predicate<String> isMisspelled) {
+    String text = descriptor.getTextChunk();
+    List<SpellCheckingProblemInfo> problems = new ArrayList<>();
+    int wordStart = 0;
+    for (int i = 0; i <= text.length(); i++) {
+      if (i == text.length() || !Character.isLetter(text.charAt(i))) {
+        if (i > wordStart) {
+          String word = text.substring(wordStart, i);
+          if (isMisspelled.test(word)) {
+            problems.add(new SpellCheckingProblemInfo(descriptor.getOffset() + wordStart,
+                descriptor.getOffset() + i - 1, 0, descriptor.getLanguage(), word));
+          }
+        }
+        wordStart = i + 1;
+      }
+    }
+    return problems;
+  }
+}
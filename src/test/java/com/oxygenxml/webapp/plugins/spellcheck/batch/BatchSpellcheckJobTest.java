@@ -0,0 +1,168 @@
+package com.oxygenxml.webapp.plugins.spellcheck.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.oxygenxml.webapp.plugins.spellcheck.IgnoredWords;
+import com.oxygenxml.webapp.plugins.spellcheck.StandIn;
+
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+import ro.sync.exml.workspace.api.util.TextChunkDescriptor;
+
+/**
+ * Tests for {@link BatchSpellcheckJob}.
+ */
+public class BatchSpellcheckJobTest {
+
+  /**
+   * The directory of the topics.
+   */
+  @Rule
+  public TemporaryFolder topicDir = new TemporaryFolder();
+
+  /**
+   * The texts sent to the spellchecker.
+   */
+  private final List<String> checkedTexts = new ArrayList<>();
+
+  /**
+   * The spellchecker, which reports the words containing "qz".
+   */
+  private final WebappSpellchecker spellchecker = StandIn.spellchecker(word -> word.contains("qz"), checkedTexts);
+
+  /**
+   * The topics are checked while the results are polled, and each result is returned once.
+   */
+  @Test
+  public void testTopicsAreCheckedWhenPolled() throws Exception {
+    BatchSpellcheckJob job = createJob(Arrays.asList(
+        writeTopic("a.dita", "<topic><p>qza</p></topic>"),
+        writeTopic("b.dita", "<topic><p>fine</p></topic>")));
+
+    job.checkTopics(spellchecker, 0);
+    assertEquals(0, job.getCompletedCount());
+    assertFalse(job.isDone());
+    assertTrue(checkedTexts.isEmpty());
+
+    job.checkTopics(spellchecker, 10_000);
+    assertEquals(2, job.getCompletedCount());
+    assertTrue(job.isDone());
+    List<Map<String, Object>> results = job.drainResults();
+    assertEquals(2, results.size());
+    assertEquals(1, results.get(0).get("problemCount"));
+    assertEquals(0, results.get(1).get("problemCount"));
+    assertTrue(job.drainResults().isEmpty());
+  }
+
+  /**
+   * Each poll checks topics until its time budget is spent, with the spellchecker of the poll.
+   */
+  @Test
+  public void testEachPollUsesItsSpellchecker() throws Exception {
+    BatchSpellcheckJob job = createJob(Arrays.asList(
+        writeTopic("a.dita", "<topic><p>first</p></topic>"),
+        writeTopic("b.dita", "<topic><p>second</p></topic>")));
+
+    List<String> firstTexts = new ArrayList<>();
+    job.checkTopics(slowSpellchecker(firstTexts), 50);
+    assertEquals(1, job.getCompletedCount());
+
+    List<String> secondTexts = new ArrayList<>();
+    job.checkTopics(slowSpellchecker(secondTexts), 50);
+    assertEquals(2, job.getCompletedCount());
+
+    assertEquals("first", String.join("", firstTexts).trim());
+    assertEquals("second", String.join("", secondTexts).trim());
+  }
+
+  /**
+   * A topic that cannot be read is reported as an error, and the next topics are checked.
+   */
+  @Test
+  public void testUnreadableTopicIsReported() throws Exception {
+    BatchSpellcheckJob job = createJob(Arrays.asList(
+        topicDir.getRoot().toPath().resolve("missing.dita").toUri().toURL(),
+        writeTopic("b.dita", "<topic><p>qzb</p></topic>")));
+
+    job.checkTopics(spellchecker, 10_000);
+    List<Map<String, Object>> results = job.drainResults();
+    assertEquals(2, results.size());
+    assertTrue(results.get(0).containsKey("error"));
+    assertEquals(1, results.get(1).get("problemCount"));
+  }
+
+  /**
+   * A cancelled job checks no other topic.
+   */
+  @Test
+  public void testCancelledJobChecksNothing() throws Exception {
+    BatchSpellcheckJob job = createJob(Collections.singletonList(
+        writeTopic("a.dita", "<topic><p>qza</p></topic>")));
+    job.cancel();
+
+    job.checkTopics(spellchecker, 10_000);
+    assertTrue(job.isDone());
+    assertEquals(0, job.getCompletedCount());
+    assertTrue(checkedTexts.isEmpty());
+  }
+
+  /**
+   * Create a job without ignored words.
+   *
+   * @param topics The topics.
+   *
+   * @return The job.
+   */
+  private static BatchSpellcheckJob createJob(List<URL> topics) {
+    return new BatchSpellcheckJob(topics, IgnoredWords.fromUncheckedArgument(Collections.emptyMap(), null), "en_US");
+  }
+
+  /**
+   * @param checkedTexts Receives the checked texts.
+   *
+   * @return A spellchecker that takes longer than the time budget of the polls of the tests.
+   */
+  private static WebappSpellchecker slowSpellchecker(List<String> checkedTexts) {
+    return StandIn.of(WebappSpellchecker.class)
+        .on("check", args -> {
+          Thread.sleep(100);
+          for (Object descriptor : (List<?>) args[0]) {
+            checkedTexts.add(((TextChunkDescriptor) descriptor).getTextChunk());
+          }
+          return Collections.emptyList();
+        })
+        .create();
+  }
+
+  /**
+   * Write a topic.
+   *
+   * @param name The name of the topic file.
+   * @param content The content of the topic.
+   *
+   * @return The URL of the topic.
+   *
+   * @throws IOException If the topic cannot be written.
+   */
+  private URL writeTopic(String name, String content) throws IOException {
+    Path topic = topicDir.getRoot().toPath().resolve(name);
+    Files.write(topic, content.getBytes(StandardCharsets.UTF_8));
+    return topic.toUri().toURL();
+  }
+}
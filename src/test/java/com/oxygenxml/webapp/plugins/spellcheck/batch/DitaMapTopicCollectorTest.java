@@ -0,0 +1,124 @@
+package com.oxygenxml.webapp.plugins.spellcheck.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link DitaMapTopicCollector}.
+ */
+public class DitaMapTopicCollectorTest {
+
+  /**
+   * The directory of the maps and topics.
+   */
+  @Rule
+  public TemporaryFolder mapDir = new TemporaryFolder();
+
+  /**
+   * Without a <code>format</code> attribute, the format is guessed from the element name and the extension,
+   * and the references that are not DITA documents are skipped.
+   */
+  @Test
+  public void testFormatFallback() throws IOException {
+    writeFile("main.ditamap", "<map>"
+        + "<topicref href='a.dita'/>"
+        + "<keydef keys='logo' href='img/x.png'/>"
+        + "<topicref href='b.xml#b/section'/>"
+        + "<mapref href='sub.map.xml'/>"
+        + "<topicref href='sub2.ditamap'/>"
+        + "<topicref href='c.dita' scope='external'/>"
+        + "<topicref href='notes.txt' format='txt'/>"
+        + "<topicref href='http://example.com/d.dita'/>"
+        + "</map>");
+    writeFile("sub.map.xml", "<map><topicref href='d.dita'/></map>");
+    writeFile("sub2.ditamap", "<map><topicref href='e' format='dita'/></map>");
+
+    List<URL> topics = new DitaMapTopicCollector(100).collectTopics(getUrl("main.ditamap"));
+
+    List<String> names = new ArrayList<>();
+    for (URL topic : topics) {
+      names.add(topic.getPath().substring(topic.getPath().lastIndexOf('/') + 1));
+    }
+    assertEquals(Arrays.asList("a.dita", "b.xml", "d.dita", "e"), names);
+  }
+
+  /**
+   * Only the documents from the same server as the map are resolved.
+   */
+  @Test
+  public void testResolveLocalUrl() throws IOException {
+    URL map = new URL("http://docs.example.com/maps/main.ditamap");
+    assertEquals(new URL("http://docs.example.com/maps/a.dita"),
+        DitaMapTopicCollector.resolveLocalUrl(map, "a.dita#topic", map));
+    assertNull(DitaMapTopicCollector.resolveLocalUrl(map, "http://169.254.169.254/latest/meta-data", map));
+    assertNull(DitaMapTopicCollector.resolveLocalUrl(map, "http://docs.example.com:8080/a.dita", map));
+  }
+
+  /**
+   * Two URLs point to the same server if they have the same protocol, host and port. URLs without a host,
+   * like the <code>file:</code> URLs, do not point to a server.
+   */
+  @Test
+  public void testIsSameServer() throws IOException {
+    URL url = new URL("http://docs.example.com/a.dita");
+    assertTrue(DitaMapTopicCollector.isSameServer(url, new URL("http://DOCS.example.com:80/b/c.dita")));
+    assertFalse(DitaMapTopicCollector.isSameServer(url, new URL("https://docs.example.com/a.dita")));
+    assertFalse(DitaMapTopicCollector.isSameServer(url, new URL("http://docs.example.com:8080/a.dita")));
+    assertFalse(DitaMapTopicCollector.isSameServer(url, new URL("http://localhost/a.dita")));
+    assertFalse(DitaMapTopicCollector.isSameServer(new URL("file:/etc/passwd"), new URL("file:/docs/a.dita")));
+  }
+
+  /**
+   * The local files must be inside the directory of the map, even when the path is encoded.
+   */
+  @Test
+  public void testLocalFilesStayInsideTheMapDirectory() throws IOException {
+    URL map = getUrl("main.ditamap");
+    assertEquals(getUrl("sub/a.dita"), DitaMapTopicCollector.resolveLocalUrl(map, "sub/a.dita#topic", map));
+    assertEquals(getUrl("a.dita"), DitaMapTopicCollector.resolveLocalUrl(getUrl("sub/sub.ditamap"), "../a.dita", map));
+    assertNull(DitaMapTopicCollector.resolveLocalUrl(map, "../../etc/passwd", map));
+    assertNull(DitaMapTopicCollector.resolveLocalUrl(map, "%2e%2e/%2e%2e/etc/passwd", map));
+    assertNull(DitaMapTopicCollector.resolveLocalUrl(map, "file:/etc/passwd", map));
+    assertNull(DitaMapTopicCollector.resolveLocalUrl(new URL("http://docs.example.com/main.ditamap"),
+        "file:/etc/passwd", new URL("http://docs.example.com/main.ditamap")));
+  }
+
+  /**
+   * Write a file in the map directory.
+   *
+   * @param name The name of the file.
+   * @param content The content of the file.
+   *
+   * @throws IOException If the file cannot be written.
+   */
+  private void writeFile(String name, String content) throws IOException {
+    Files.write(mapDir.getRoot().toPath().resolve(name), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param name The name of a file in the map directory.
+   *
+   * @return The URL of the file.
+   *
+   * @throws IOException If the URL cannot be created.
+   */
+  private URL getUrl(String name) throws IOException {
+    Path file = mapDir.getRoot().toPath().resolve(name);
+    return file.toUri().toURL();
+  }
+}
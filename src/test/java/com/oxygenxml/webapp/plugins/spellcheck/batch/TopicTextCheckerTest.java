@@ -0,0 +1,109 @@
+package com.oxygenxml.webapp.plugins.spellcheck.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Strings;
+import com.oxygenxml.webapp.plugins.spellcheck.IgnoredWords;
+import com.oxygenxml.webapp.plugins.spellcheck.StandIn;
+
+/**
+ * Tests for {@link TopicTextChecker}.
+ */
+public class TopicTextCheckerTest {
+
+  /**
+   * The directory of the topics.
+   */
+  @Rule
+  public TemporaryFolder topicDir = new TemporaryFolder();
+
+  /**
+   * The texts sent to the spellchecker.
+   */
+  private final List<String> checkedTexts = new ArrayList<>();
+
+  /**
+   * The checker, with a spellchecker that reports the words containing "qz".
+   */
+  private final TopicTextChecker checker = new TopicTextChecker(
+      StandIn.spellchecker(word -> word.contains("qz"), checkedTexts),
+      IgnoredWords.fromUncheckedArgument(Collections.emptyMap(), null), "en_US");
+
+  /**
+   * A long text node is checked in chunks cut at word boundaries.
+   */
+  @Test
+  public void testLongTextIsSplitInChunks() throws IOException {
+    check("<topic><p>" + Strings.repeat("word ", 4000) + "</p></topic>");
+
+    assertTrue(checkedTexts.size() > 1);
+    int wordCount = 0;
+    for (String chunk : checkedTexts) {
+      assertTrue(chunk.length() < 2 * TopicTextChecker.CHUNK_LENGTH);
+      for (String word : chunk.trim().split("\\s+")) {
+        assertEquals("word", word);
+        wordCount++;
+      }
+    }
+    assertEquals(4000, wordCount);
+  }
+
+  /**
+   * A word longer than a chunk is cut.
+   */
+  @Test
+  public void testLongWordIsCut() throws IOException {
+    check("<topic><p>" + Strings.repeat("a", 5 * TopicTextChecker.CHUNK_LENGTH) + "</p></topic>");
+
+    int length = 0;
+    for (String chunk : checkedTexts) {
+      assertTrue(chunk.length() < 2 * TopicTextChecker.CHUNK_LENGTH);
+      length += chunk.trim().length();
+    }
+    assertEquals(5 * TopicTextChecker.CHUNK_LENGTH, length);
+  }
+
+  /**
+   * The line of a problem is right after a long text node was split.
+   */
+  @Test
+  public void testProblemLineInLongText() throws IOException {
+    Map<String, Object> result = check("<topic>\n<p>" + Strings.repeat("word\n", 3000) + "qzx</p>\n</topic>");
+
+    assertEquals(1, result.get("problemCount"));
+    Map<?, ?> problem = (Map<?, ?>) ((List<?>) result.get("problems")).get(0);
+    assertEquals("qzx", problem.get("word"));
+    assertEquals(3002, problem.get("line"));
+  }
+
+  /**
+   * Check a topic.
+   *
+   * @param content The content of the topic.
+   *
+   * @return The result of the check.
+   *
+   * @throws IOException If the topic cannot be checked.
+   */
+  private Map<String, Object> check(String content) throws IOException {
+    Path topic = topicDir.getRoot().toPath().resolve("topic.dita");
+    Files.write(topic, content.getBytes(StandardCharsets.UTF_8));
+    URL topicUrl = topic.toUri().toURL();
+    return checker.check(topicUrl);
+  }
+}
@@ -0,0 +1,105 @@
+package com.oxygenxml.webapp.plugins.spellcheck.dictionary;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.oxygenxml.webapp.plugins.spellcheck.StandIn;
+
+import ro.sync.ecss.extensions.api.SpellCheckingProblemInfo;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+import ro.sync.exml.workspace.api.util.TextChunkDescriptor;
+
+/**
+ * Tests for {@link CompiledDictionaryEngine}.
+ */
+public class CompiledDictionaryEngineTest {
+
+  /**
+   * The directory of the compiled dictionaries.
+   */
+  @Rule
+  public TemporaryFolder dictionaryDir = new TemporaryFolder();
+
+  /**
+   * The texts sent to the host spellchecker.
+   */
+  private final List<String> hostCheckedTexts = new ArrayList<>();
+
+  /**
+   * The host spellchecker stand-in, which knows the learned word "Syncro" and reports all the other words.
+   */
+  private final WebappSpellchecker hostSpellchecker = StandIn.spellchecker(word -> !"Syncro".equals(word), hostCheckedTexts);
+
+  /**
+   * Only the words missing from the dictionary are sent to the host spellchecker, which confirms the problems.
+   */
+  @Test
+  public void testMissesAreConfirmedByTheHost() throws IOException {
+    CompiledDictionaryEngine engine = createEngine(true);
+    List<SpellCheckingProblemInfo> problems = engine.check(hostSpellchecker,
+        new TextChunkDescriptor("The cat met Syncro and a qzdog.", 100, "en_US"));
+
+    assertEquals(Arrays.asList("Syncro", "qzdog"), hostCheckedTexts);
+    assertEquals(1, problems.size());
+    assertEquals("qzdog", problems.get(0).getWord());
+    assertEquals(125, problems.get(0).getStartOffset());
+    assertEquals(129, problems.get(0).getEndOffset());
+  }
+
+  /**
+   * The capitalized and upper case forms of the words are found, the names and the numbers are skipped.
+   */
+  @Test
+  public void testWordVariantsAndNames() throws IOException {
+    CompiledDictionaryEngine engine = createEngine(true);
+    engine.check(hostSpellchecker,
+        new TextChunkDescriptor("THE Cat, see qzpath/file and qz.example, 3qzd.", 0, "en_US"));
+    assertEquals(Arrays.asList("see"), hostCheckedTexts);
+  }
+
+  /**
+   * A text without unknown words is not sent to the host spellchecker.
+   */
+  @Test
+  public void testKnownWordsAreNotSentToTheHost() throws IOException {
+    CompiledDictionaryEngine engine = createEngine(true);
+    List<SpellCheckingProblemInfo> problems = engine.check(hostSpellchecker,
+        new TextChunkDescriptor("the cat and a dog", 0, "en_GB"));
+    assertEquals(0, problems.size());
+    assertEquals(0, hostCheckedTexts.size());
+  }
+
+  /**
+   * The compiled dictionaries are not used unless enabled, so the host spellchecker checks the whole text.
+   */
+  @Test
+  public void testDisabledByDefault() throws IOException {
+    CompiledDictionaryEngine engine = createEngine(false);
+    engine.loadDefaultDictionaries(dictionaryDir.getRoot().toPath());
+    engine.check(hostSpellchecker, new TextChunkDescriptor("the cat", 0, "en_US"));
+    assertEquals(Arrays.asList("the cat"), hostCheckedTexts);
+  }
+
+  /**
+   * Create an engine with an English dictionary.
+   *
+   * @param enabled <code>true</code> to use the compiled dictionaries.
+   *
+   * @return The engine.
+   *
+   * @throws IOException If the dictionary cannot be compiled.
+   */
+  private CompiledDictionaryEngine createEngine(boolean enabled) throws IOException {
+    DictionaryCompiler.compile(Arrays.asList("the", "cat", "met", "and", "a", "dog"),
+        dictionaryDir.getRoot().toPath().resolve("en.dict"));
+    return new CompiledDictionaryEngine(enabled, dictionaryDir.getRoot().getPath());
+  }
+}
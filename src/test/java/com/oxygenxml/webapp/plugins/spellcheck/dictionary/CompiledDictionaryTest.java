@@ -0,0 +1,193 @@
+package com.oxygenxml.webapp.plugins.spellcheck.dictionary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link CompiledDictionary} and {@link DictionaryCompiler}.
+ */
+public class CompiledDictionaryTest {
+
+  /**
+   * The directory of the compiled dictionaries.
+   */
+  @Rule
+  public TemporaryFolder dictionaryDir = new TemporaryFolder();
+
+  /**
+   * The words of the list are found, the other words are not.
+   */
+  @Test
+  public void testContains() throws IOException {
+    CompiledDictionary dictionary = compile("apple", "banana", "cherry");
+    assertEquals(3, dictionary.getWordCount());
+    assertTrue(contains(dictionary, "apple"));
+    assertTrue(contains(dictionary, "cherry"));
+    assertFalse(contains(dictionary, "appl"));
+    assertFalse(contains(dictionary, "apples"));
+    assertFalse(contains(dictionary, "Apple"));
+  }
+
+  /**
+   * The comments, the empty lines and the surrounding whitespace of the word list are skipped.
+   */
+  @Test
+  public void testWordListFormat() throws IOException {
+    CompiledDictionary dictionary = compile("# fruits", "", "  apple  ", "banana");
+    assertEquals(2, dictionary.getWordCount());
+    assertTrue(contains(dictionary, "apple"));
+    assertFalse(contains(dictionary, "# fruits"));
+  }
+
+  /**
+   * The words are looked up inside a larger text, optionally converting their end to lower case.
+   */
+  @Test
+  public void testLookupInTextWithLowerCaseConversion() throws IOException {
+    CompiledDictionary dictionary = compile("apple", "iPhone");
+    String text = "An APPLE a day";
+    assertFalse(dictionary.contains(text, 3, 8, 8));
+    assertTrue(dictionary.contains(text, 3, 8, 3));
+    assertFalse(dictionary.contains(text, 3, 7, 3));
+    assertTrue(dictionary.contains("iPhone", 0, 6, 6));
+    assertFalse(dictionary.contains("IPHONE", 0, 6, 1));
+  }
+
+  /**
+   * The typographic apostrophe is looked up as the ASCII one, in the word lists too.
+   */
+  @Test
+  public void testApostropheNormalization() throws IOException {
+    CompiledDictionary dictionary = compile("don't", "it\u2019s");
+    assertTrue(contains(dictionary, "don't"));
+    assertTrue(contains(dictionary, "don\u2019t"));
+    assertTrue(contains(dictionary, "it's"));
+  }
+
+  /**
+   * All the words of a large list are found, despite the hash collisions.
+   */
+  @Test
+  public void testManyWords() throws IOException {
+    List<String> words = new ArrayList<>();
+    for (int i = 0; i < 20000; i++) {
+      words.add("w" + Integer.toString(i, 36));
+    }
+    CompiledDictionary dictionary = compile(words.toArray(new String[0]));
+    assertEquals(words.size(), dictionary.getWordCount());
+    for (String word : words) {
+      assertTrue(word, contains(dictionary, word));
+    }
+    assertFalse(contains(dictionary, "w" + Integer.toString(20000, 36)));
+  }
+
+  /**
+   * The checksum depends only on the words, not on their order.
+   */
+  @Test
+  public void testChecksum() throws IOException {
+    long checksum = compile("apple", "banana").getChecksum();
+    assertEquals(checksum, compile("banana", "apple").getChecksum());
+    assertNotEquals(checksum, compile("apple", "cherry").getChecksum());
+  }
+
+  /**
+   * A file that is not a compiled dictionary is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testNotADictionary() throws IOException {
+    Path file = dictionaryDir.newFile("en.dict").toPath();
+    Files.write(file, "not a dictionary, just some text".getBytes("UTF-8"));
+    CompiledDictionary.open(file);
+  }
+
+  /**
+   * A dictionary whose slot points past the end of the file is rejected when it is opened.
+   */
+  @Test(expected = IOException.class)
+  public void testSlotOutsideTheFile() throws IOException {
+    Path file = compileToFile("apple");
+    corruptSlots(file, Integer.MAX_VALUE);
+    CompiledDictionary.open(file);
+  }
+
+  /**
+   * A dictionary without empty slots is rejected when it is opened, since a lookup of a missing word
+   * would probe forever.
+   */
+  @Test(expected = IOException.class)
+  public void testNoEmptySlot() throws IOException {
+    Path file = compileToFile("apple");
+    corruptSlots(file, 1);
+    CompiledDictionary.open(file);
+  }
+
+  /**
+   * Compile a word list and open the dictionary.
+   *
+   * @param lines The lines of the word list.
+   *
+   * @return The dictionary.
+   *
+   * @throws IOException If the dictionary cannot be written or read.
+   */
+  private CompiledDictionary compile(String... lines) throws IOException {
+    return CompiledDictionary.open(compileToFile(lines));
+  }
+
+  /**
+   * Compile a word list.
+   *
+   * @param lines The lines of the word list.
+   *
+   * @return The dictionary file.
+   *
+   * @throws IOException If the dictionary cannot be written.
+   */
+  private Path compileToFile(String... lines) throws IOException {
+    Path file = dictionaryDir.getRoot().toPath().resolve("en" + System.nanoTime() + ".dict");
+    DictionaryCompiler.compile(Arrays.asList(lines), file);
+    return file;
+  }
+
+  /**
+   * Set the word offset of all the slots of a dictionary file.
+   *
+   * @param file The dictionary file.
+   * @param wordOffset The word offset, plus one.
+   *
+   * @throws IOException If the file cannot be changed.
+   */
+  private static void corruptSlots(Path file, int wordOffset) throws IOException {
+    ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+    int slotCount = content.getInt(8);
+    for (int slot = 0; slot < slotCount; slot++) {
+      content.putInt(CompiledDictionary.HEADER_SIZE + slot * CompiledDictionary.SLOT_SIZE + 4, wordOffset);
+    }
+    Files.write(file, content.array());
+  }
+
+  /**
+   * @param dictionary The dictionary.
+   * @param word The word.
+   *
+   * @return <code>true</code> if the dictionary contains the word as it is.
+   */
+  private static boolean contains(CompiledDictionary dictionary, String word) {
+    return dictionary.contains(word, 0, word.length(), word.length());
+  }
+}
@@ -0,0 +1,354 @@
+package com.oxygenxml.webapp.plugins.spellcheck.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+
+import com.oxygenxml.webapp.plugins.spellcheck.StandIn;
+
+import ro.sync.ecss.extensions.api.AuthorDocumentController;
+import ro.sync.ecss.extensions.api.AuthorListener;
+import ro.sync.ecss.extensions.api.SpellCheckingProblemInfo;
+import ro.sync.ecss.extensions.api.node.AuthorDocument;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+import ro.sync.exml.workspace.api.util.TextChunkDescriptor;
+
+/**
+ * In-memory stand-in for a document opened in Web Author, together with its spellchecker.
+ *
+ * The host API types are {@link StandIn}s that implement only the methods used by the plugin. Every word that contains {@link #MISSPELLING_MARKER} is reported as misspelled.
+ *
+ * The document can be edited: the positions follow the edits and the listeners are notified with
+ * {@link AuthorListener#documentChanged}, as the stand-in has no finer grained events.
+ * An instance is used by a single session at a time.
+ */
+class InMemoryDocument {
+
+  /**
+   * Marker that makes a word misspelled.
+   */
+  static final String MISSPELLING_MARKER = "qz";
+
+  /**
+   * The language of the document.
+   */
+  static final String LANGUAGE = "en_US";
+
+  /**
+   * Correctly spelled words used to generate the document.
+   */
+  private static final String[] VOCABULARY = {
+      "the", "topic", "describes", "how", "to", "configure", "server", "editor",
+      "document", "element", "attribute", "content", "author", "review", "change"
+  };
+
+  /**
+   * The document content. Replaced on each edit, so that a reader sees a consistent content.
+   */
+  private volatile char[] text;
+
+  /**
+   * The positions created in the document, updated on each edit.
+   */
+  private final List<ContentPosition> positions = new ArrayList<>();
+
+  /**
+   * The document listeners.
+   */
+  private final List<AuthorListener> listeners = new ArrayList<>();
+
+  /**
+   * The document node stand-in.
+   */
+  private final AuthorDocument documentNode = StandIn.of(AuthorDocument.class)
+      .on("getEndOffset", args -> text.length)
+      .create();
+
+  /**
+   * Simulated engine cost, in nanoseconds per checked character.
+   */
+  private final long engineNanosPerChar;
+
+  /**
+   * Number of characters sent to the engine.
+   */
+  private long checkedChars;
+
+  /**
+   * Constructor.
+   *
+   * @param wordCount The number of words in the document.
+   * @param misspellingRate The fraction of misspelled words.
+   * @param engineNanosPerChar Simulated engine cost, in nanoseconds per checked character.
+   * @param random The random generator.
+   */
+  InMemoryDocument(int wordCount, double misspellingRate, long engineNanosPerChar, Random random) {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < wordCount; i++) {
+      String word = VOCABULARY[random.nextInt(VOCABULARY.length)];
+      if (random.nextDouble() < misspellingRate) {
+        word = word.substring(0, 1) + MISSPELLING_MARKER + word.substring(1);
+      }
+      content.append(word).append(i % 12 == 11 ? ". " : " ");
+    }
+    this.text = content.toString().toCharArray();
+    this.engineNanosPerChar = engineNanosPerChar;
+  }
+
+  /**
+   * Constructor for a document with the given misspelled words at the given offsets.
+   *
+   * The rest of the document is filled with correctly spelled words.
+   *
+   * @param length The length of the document.
+   * @param misspelledWords The misspelled words, by start offset. Each one must contain {@link #MISSPELLING_MARKER}.
+   * @param engineNanosPerChar Simulated engine cost, in nanoseconds per checked character.
+   */
+  InMemoryDocument(int length, Map<Integer, String> misspelledWords, long engineNanosPerChar) {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; content.length() < length; i++) {
+      content.append(VOCABULARY[i % VOCABULARY.length]).append(' ');
+    }
+    content.setLength(length);
+    for (Map.Entry<Integer, String> misspelledWord : misspelledWords.entrySet()) {
+      int start = misspelledWord.getKey();
+      int end = start + misspelledWord.getValue().length();
+      if (start >= 0 && end <= length) {
+        content.replace(start, end, misspelledWord.getValue());
+        // Keep the word separated from the filler words.
+        if (start > 0) {
+          content.setCharAt(start - 1, ' ');
+        }
+        if (end < length) {
+          content.setCharAt(end, ' ');
+        }
+      }
+    }
+    this.text = content.toString().toCharArray();
+    this.engineNanosPerChar = engineNanosPerChar;
+  }
+
+  /**
+   * @return The length of the document.
+   */
+  int getLength() {
+    return text.length;
+  }
+
+  /**
+   * Get the text between two offsets.
+   *
+   * @param start The start offset.
+   * @param end The end offset, exclusive.
+   *
+   * @return The text.
+   */
+  String getText(int start, int end) {
+    return new String(text, start, end - start);
+  }
+
+  /**
+   * @return The number of characters sent to the engine so far.
+   */
+  long getCheckedChars() {
+    return checkedChars;
+  }
+
+  /**
+   * Delete an interval of the document.
+   *
+   * @param startOffset The start offset.
+   * @param endOffset The end offset, inclusive.
+   */
+  synchronized void delete(int startOffset, int endOffset) {
+    char[] content = text;
+    int length = endOffset - startOffset + 1;
+    char[] newContent = new char[content.length - length];
+    System.arraycopy(content, 0, newContent, 0, startOffset);
+    System.arraycopy(content, endOffset + 1, newContent, startOffset, content.length - endOffset - 1);
+    text = newContent;
+    for (ContentPosition position : positions) {
+      if (position.offset > endOffset) {
+        position.offset -= length;
+      } else if (position.offset > startOffset) {
+        position.offset = startOffset;
+      }
+    }
+    fireDocumentChanged();
+  }
+
+  /**
+   * Insert text in the document.
+   *
+   * @param offset The offset where the text is inserted.
+   * @param insertedText The inserted text.
+   */
+  synchronized void insertText(int offset, String insertedText) {
+    char[] content = text;
+    char[] newContent = new char[content.length + insertedText.length()];
+    System.arraycopy(content, 0, newContent, 0, offset);
+    insertedText.getChars(0, insertedText.length(), newContent, offset);
+    System.arraycopy(content, offset, newContent, offset + insertedText.length(), content.length - offset);
+    text = newContent;
+    for (ContentPosition position : positions) {
+      if (position.offset >= offset) {
+        position.offset += insertedText.length();
+      }
+    }
+    fireDocumentChanged();
+  }
+
+  /**
+   * Replace all the occurrences of a word, as a whole word and matching the case.
+   *
+   * @param oldWord The word to replace.
+   * @param newWord The word to replace with.
+   */
+  synchronized void replaceAll(String oldWord, String newWord) {
+    String content = new String(text);
+    // From the end, so that the offsets of the occurrences not replaced yet stay valid.
+    for (int i = content.lastIndexOf(oldWord); i >= 0; i = i == 0 ? -1 : content.lastIndexOf(oldWord, i - 1)) {
+      int end = i + oldWord.length();
+      boolean wholeWord = (i == 0 || !Character.isLetter(content.charAt(i - 1)))
+          && (end == content.length() || !Character.isLetter(content.charAt(end)));
+      if (wholeWord) {
+        delete(i, end - 1);
+        insertText(i, newWord);
+      }
+    }
+  }
+
+  /**
+   * Notify the listeners that the document changed.
+   */
+  private void fireDocumentChanged() {
+    for (AuthorListener listener : new ArrayList<>(listeners)) {
+      listener.documentChanged(documentNode, documentNode);
+    }
+  }
+
+  /**
+   * @return A document controller stand-in.
+   */
+  AuthorDocumentController createController() {
+    return StandIn.of(AuthorDocumentController.class)
+        .on("getAuthorDocumentNode", args -> documentNode)
+        .on("createPositionInContent", args -> createPosition((Integer) args[0]))
+        .on("getChars", args -> {
+          StandIn.readChars(text, (Integer) args[0], (Integer) args[1], (Segment) args[2]);
+          return null;
+        })
+        .on("delete", args -> {
+          delete((Integer) args[0], (Integer) args[1]);
+          return true;
+        })
+        .on("insertText", args -> {
+          insertText((Integer) args[0], (String) args[1]);
+          return null;
+        })
+        .on("addAuthorListener", args -> {
+          synchronized (this) {
+            listeners.add((AuthorListener) args[0]);
+          }
+          return null;
+        })
+        .on("removeAuthorListener", args -> {
+          synchronized (this) {
+            listeners.remove(args[0]);
+          }
+          return null;
+        })
+        .create();
+  }
+
+  /**
+   * Create a position that follows the edits.
+   *
+   * @param offset The offset of the position.
+   *
+   * @return The position.
+   *
+   * @throws BadLocationException If the offset is not in the document.
+   */
+  private synchronized Position createPosition(int offset) throws BadLocationException {
+    if (offset < 0 || offset > text.length) {
+      throw new BadLocationException("Outside the document", offset);
+    }
+    ContentPosition position = new ContentPosition(offset);
+    positions.add(position);
+    return position;
+  }
+
+  /**
+   * @return A spellchecker stand-in.
+   */
+  WebappSpellchecker createSpellchecker() {
+    return StandIn.of(WebappSpellchecker.class)
+        .on("getTextDescriptors", args -> {
+          char[] content = text;
+          int start = (Integer) args[0];
+          int end = Math.min((Integer) args[1], content.length);
+          return Collections.singletonList(
+              new TextChunkDescriptor(new String(content, start, end - start), start, LANGUAGE));
+        })
+        .on("check", args -> check((TextChunkDescriptor) ((List<?>) args[0]).get(0)))
+        .on("getSuggestionsForWordAtPosition", args -> {
+          // The stand-in problems carry their own suggestions, the word at a position only has the cost.
+          int offset = (Integer) args[0];
+          LockSupport.parkNanos(engineNanosPerChar * Math.min(100, Math.max(0, text.length - offset)));
+          return null;
+        })
+        .create();
+  }
+
+  /**
+   * Find the misspelled words in a text chunk.
+   *
+   * @param descriptor The text chunk.
+   *
+   * @return The problems.
+   */
+  private List<SpellCheckingProblemInfo> check(TextChunkDescriptor descriptor) {
+    checkedChars += descriptor.getTextChunk().length();
+    LockSupport.parkNanos(engineNanosPerChar * descriptor.getTextChunk().length());
+
+    List<SpellCheckingProblemInfo> problems =
+        StandIn.findMisspelledWords(descriptor, word -> word.contains(MISSPELLING_MARKER));
+    for (SpellCheckingProblemInfo problem : problems) {
+      problem.setSuggestions(Collections.singletonList(problem.getWord().replace(MISSPELLING_MARKER, "")));
+    }
+    return problems;
+  }
+
+  /**
+   * A position that follows the edits of the document.
+   */
+  private static class ContentPosition implements Position {
+
+    /**
+     * The offset of the position.
+     */
+    private volatile int offset;
+
+    /**
+     * Constructor.
+     *
+     * @param offset The offset of the position.
+     */
+    private ContentPosition(int offset) {
+      this.offset = offset;
+    }
+
+    @Override
+    public int getOffset() {
+      return offset;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.oxygenxml.webapp.plugins.spellcheck.load;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckEditor;
+import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckContext;
+
+import ro.sync.ecss.extensions.api.AuthorDocumentController;
+import ro.sync.ecss.extensions.api.webapp.WebappSpellchecker;
+
+/**
+ * Editing session over an in-memory document, on which the spellcheck operations run as in Web Author.
+ */
+class InMemoryEditor implements SpellcheckEditor {
+
+  /**
+   * The document of the session.
+   */
+  private final InMemoryDocument document;
+
+  /**
+   * The controller stand-in.
+   */
+  private final AuthorDocumentController controller;
+
+  /**
+   * The spellchecker stand-in.
+   */
+  private final WebappSpellchecker spellchecker;
+
+  /**
+   * The attributes of the editing session.
+   */
+  private final Map<String, Object> attributes = new HashMap<>();
+
+  /**
+   * The caret offset.
+   */
+  private int caretOffset;
+
+  /**
+   * Constructor.
+   *
+   * @param document The document of the session.
+   */
+  InMemoryEditor(InMemoryDocument document) {
+    this.document = document;
+    this.controller = document.createController();
+    this.spellchecker = document.createSpellchecker();
+  }
+
+  /**
+   * @return The document of the session.
+   */
+  InMemoryDocument getDocument() {
+    return document;
+  }
+
+  /**
+   * @return The spellcheck context of the session, <code>null</code> if there is none.
+   */
+  SpellcheckContext getSpellcheckContext() {
+    return (SpellcheckContext) getSessionAttribute(SpellcheckContext.SPELLCHECK_CONTEXT_ATTR_NAME);
+  }
+
+  @Override
+  public AuthorDocumentController getDocumentController() {
+    return controller;
+  }
+
+  @Override
+  public WebappSpellchecker getSpellchecker() {
+    return spellchecker;
+  }
+
+  @Override
+  public int getCaretOffset() {
+    return caretOffset;
+  }
+
+  @Override
+  public void select(int startOffset, int endOffset) {
+    // Like in Web Author, the caret is at the end of the selection.
+    caretOffset = endOffset;
+  }
+
+  @Override
+  public void moveCaretTo(int offset) {
+    caretOffset = offset;
+  }
+
+  @Override
+  public void replaceAll(String oldWord, String newWord) {
+    document.replaceAll(oldWord, newWord);
+  }
+
+  @Override
+  public synchronized Object getSessionAttribute(String name) {
+    return attributes.get(name);
+  }
+
+  @Override
+  public synchronized void setSessionAttribute(String name, Object value) {
+    if (value == null) {
+      attributes.remove(name);
+    } else {
+      attributes.put(name, value);
+    }
+  }
+
+  @Override
+  public synchronized Object getOrCreateSessionAttribute(String name, Supplier<Object> factory) {
+    return attributes.computeIfAbsent(name, key -> factory.get());
+  }
+}
@@ -0,0 +1,273 @@
+package com.oxygenxml.webapp.plugins.spellcheck.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.oxygenxml.webapp.plugins.spellcheck.ClearSpellingContextInformationOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.FindSpellingSuggestionsOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.GoToNextSpellingErrorOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.IgnoreCurrentAndFindNextSpellingOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.ReplaceAndFindNextSpellingOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.SelectSpellingProblemOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckContext;
+
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+
+/**
+ * A recorded session, replayed with the operations of the plugin on an in-memory editor.
+ *
+ * The document is rebuilt from the recording: it has the recorded length and a misspelled word at each
+ * recorded problem offset. Words with the same hash in the recording get the same replacement word.
+ * The recorded words are read back from the document, as the recording has only their hashes.
+ */
+class ReplayedSession {
+
+  /**
+   * The operations, by name.
+   */
+  private static final Map<String, SpellcheckOperation> OPERATIONS = new HashMap<>();
+  static {
+    for (SpellcheckOperation operation : new SpellcheckOperation[] {
+        new GoToNextSpellingErrorOperation(),
+        new IgnoreCurrentAndFindNextSpellingOperation(),
+        new ReplaceAndFindNextSpellingOperation(),
+        new SelectSpellingProblemOperation(),
+        new FindSpellingSuggestionsOperation(),
+        new ClearSpellingContextInformationOperation()}) {
+      OPERATIONS.put(operation.getClass().getSimpleName(), operation);
+    }
+  }
+
+  /**
+   * The recorded steps.
+   */
+  private final List<Map<String, Object>> steps;
+
+  /**
+   * The editing session.
+   */
+  private final InMemoryEditor editor;
+
+  /**
+   * Constructor.
+   *
+   * @param steps The recorded steps.
+   * @param engineNanosPerChar Simulated engine cost, in nanoseconds per checked character.
+   */
+  ReplayedSession(List<Map<String, Object>> steps, long engineNanosPerChar) {
+    this.steps = steps;
+    int docLength = 0;
+    Map<Integer, String> misspelledWords = new TreeMap<>();
+    for (Map<String, Object> step : steps) {
+      docLength = Math.max(docLength, getInt(step, "docLength", 0));
+      Map<String, Object> result = getMap(step, "result");
+      addMisspelledWord(result, misspelledWords);
+      for (Object problem : (List<?>) result.getOrDefault("window", Collections.emptyList())) {
+        addMisspelledWord(asMap(problem), misspelledWords);
+      }
+    }
+    this.editor = new InMemoryEditor(new InMemoryDocument(docLength, misspelledWords, engineNanosPerChar));
+  }
+
+  /**
+   * @return The recorded steps.
+   */
+  List<Map<String, Object>> getSteps() {
+    return steps;
+  }
+
+  /**
+   * @param step The recorded step.
+   *
+   * @return <code>true</code> if the operation of the step is replayed.
+   */
+  static boolean isReplayed(Map<String, Object> step) {
+    return OPERATIONS.containsKey(step.get("op"));
+  }
+
+  /**
+   * Replay a step.
+   *
+   * @param step The recorded step, with an operation that is replayed.
+   *
+   * @return The result of the operation.
+   *
+   * @throws AuthorOperationException If the step fails.
+   */
+  String perform(Map<String, Object> step) throws AuthorOperationException {
+    String operationName = (String) step.get("op");
+    Map<String, Object> recordedArgs = getMap(step, "args");
+    Map<String, Object> args = new HashMap<>();
+    for (Map.Entry<String, Object> arg : recordedArgs.entrySet()) {
+      if (!(arg.getValue() instanceof Map)) {
+        args.put(arg.getKey(), arg.getValue());
+      }
+    }
+    args.put(IgnoreCurrentAndFindNextSpellingOperation.IGNORED_WORDS_ARGUMENT_NAME,
+        createIgnoredWordsArgument(getInt(recordedArgs, "ignoredWordsCount", 0)));
+    args.put("language", InMemoryDocument.LANGUAGE);
+
+    SpellcheckContext spellcheckContext = editor.getSpellcheckContext();
+    boolean hasCurrentWord = spellcheckContext != null && spellcheckContext.getCurrentWord() != null;
+    switch (operationName) {
+      case "IgnoreCurrentAndFindNextSpellingOperation":
+      case "ReplaceAndFindNextSpellingOperation":
+        if (!hasCurrentWord) {
+          // The replayed session found another problem, or none, so only the search is replayed.
+          operationName = "GoToNextSpellingErrorOperation";
+        }
+        Map<String, Object> newWord = getMap(recordedArgs, "newWord");
+        if (newWord.get("hash") instanceof String) {
+          args.put("newWord", createReplacementWord((String) newWord.get("hash"), getInt(newWord, "length", 0)));
+        }
+        break;
+      case "SelectSpellingProblemOperation":
+        args.put("word", readWord(getInt(recordedArgs, "startOffset", -1), getInt(recordedArgs, "endOffset", -1)));
+        // A stale window was not selected on the server either.
+        boolean stale = Boolean.TRUE.equals(getMap(step, "result").get("stale"));
+        args.put("version", !stale && spellcheckContext != null ? spellcheckContext.getDocumentVersion() : -1);
+        break;
+      case "FindSpellingSuggestionsOperation":
+        int startOffset = getInt(recordedArgs, "startOffset", -1);
+        int length = getInt(getMap(recordedArgs, "word"), "length", 0);
+        args.put("word", readWord(startOffset, startOffset + length - 1));
+        break;
+      default:
+        break;
+    }
+
+    editor.moveCaretTo(Math.min(getInt(step, "caretOffset", 0), editor.getDocument().getLength()));
+    return OPERATIONS.get(operationName).doOperation(editor, args::get);
+  }
+
+  /**
+   * Read a word from the document.
+   *
+   * @param startOffset The start offset of the word.
+   * @param endOffset The inclusive end offset of the word.
+   *
+   * @return The word, <code>null</code> if the offsets are not in the document.
+   */
+  private String readWord(int startOffset, int endOffset) {
+    InMemoryDocument document = editor.getDocument();
+    String word = null;
+    if (startOffset >= 0 && endOffset >= startOffset && endOffset < document.getLength()) {
+      word = document.getText(startOffset, endOffset + 1);
+    }
+    return word;
+  }
+
+  /**
+   * Add the misspelled word of a recorded problem.
+   *
+   * @param problem The recorded problem.
+   * @param misspelledWords The misspelled words, by start offset.
+   */
+  private static void addMisspelledWord(Map<String, Object> problem, Map<Integer, String> misspelledWords) {
+    int startOffset = getInt(problem, "startOffset", -1);
+    int endOffset = getInt(problem, "endOffset", -1);
+    Map<String, Object> word = getMap(problem, "word");
+    if (startOffset >= 0 && endOffset > startOffset && word.get("hash") instanceof String) {
+      misspelledWords.put(startOffset, createMisspelledWord((String) word.get("hash"), endOffset - startOffset + 1));
+    }
+  }
+
+  /**
+   * Create a misspelled word that stands for a recorded word.
+   *
+   * @param hash The hash of the recorded word.
+   * @param length The length of the recorded word.
+   *
+   * @return A word of the given length, the same for the same hash.
+   */
+  private static String createMisspelledWord(String hash, int length) {
+    return createWord(InMemoryDocument.MISSPELLING_MARKER, hash, length);
+  }
+
+  /**
+   * Create a correctly spelled word that stands for a recorded replacement word.
+   *
+   * @param hash The hash of the recorded word.
+   * @param length The length of the recorded word.
+   *
+   * @return A word of the given length, the same for the same hash.
+   */
+  private static String createReplacementWord(String hash, int length) {
+    return createWord("", hash, length);
+  }
+
+  /**
+   * Create a word from a hash, with letters that do not form {@link InMemoryDocument#MISSPELLING_MARKER}.
+   *
+   * @param prefix The start of the word.
+   * @param hash The hash of the recorded word.
+   * @param length The length of the word.
+   *
+   * @return A word of the given length, the same for the same prefix and hash.
+   */
+  private static String createWord(String prefix, String hash, int length) {
+    StringBuilder word = new StringBuilder(prefix);
+    for (int i = 0; word.length() < length; i++) {
+      word.append((char) ('a' + Character.digit(hash.charAt(i % hash.length()), 16)));
+    }
+    return word.substring(0, length);
+  }
+
+  /**
+   * Create an ignored words argument with the recorded number of words.
+   *
+   * @param count The number of ignored words.
+   *
+   * @return The argument.
+   */
+  private static Map<String, Object> createIgnoredWordsArgument(int count) {
+    List<String> words = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      words.add("ignored" + i);
+    }
+    return Collections.singletonMap(InMemoryDocument.LANGUAGE, words);
+  }
+
+  /**
+   * Get an integer property of a recorded object.
+   *
+   * @param object The recorded object.
+   * @param name The name of the property.
+   * @param defaultValue The value used when the property is missing.
+   *
+   * @return The value of the property.
+   */
+  static int getInt(Map<String, Object> object, String name, int defaultValue) {
+    Object value = object.get(name);
+    return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+  }
+
+  /**
+   * Get an object property of a recorded object.
+   *
+   * @param object The recorded object.
+   * @param name The name of the property.
+   *
+   * @return The value of the property, empty if missing.
+   */
+  static Map<String, Object> getMap(Map<String, Object> object, String name) {
+    return asMap(object.get(name));
+  }
+
+  /**
+   * Cast a recorded value to an object.
+   *
+   * @param value The recorded value.
+   *
+   * @return The object, empty if the value is not an object.
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> asMap(Object value) {
+    return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+  }
+}
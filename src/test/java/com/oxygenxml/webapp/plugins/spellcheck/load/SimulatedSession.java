@@ -0,0 +1,138 @@
+package com.oxygenxml.webapp.plugins.spellcheck.load;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.oxygenxml.webapp.plugins.spellcheck.GoToNextSpellingErrorOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.IgnoreCurrentAndFindNextSpellingOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.ReplaceAndFindNextSpellingOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckOperation;
+import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckContext;
+import com.oxygenxml.webapp.plugins.spellcheck.context.SpellcheckWordInfo;
+
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+
+/**
+ * A user that steps through the spelling problems of a document.
+ *
+ * Each step runs the "Find next", "Ignore" or "Replace" operation of the plugin on an in-memory editor.
+ */
+class SimulatedSession {
+
+  /**
+   * The kind of step.
+   */
+  enum Step {
+    /**
+     * GoToNextSpellingErrorOperation.
+     */
+    FIND_NEXT(new GoToNextSpellingErrorOperation()),
+    /**
+     * IgnoreCurrentAndFindNextSpellingOperation.
+     */
+    IGNORE(new IgnoreCurrentAndFindNextSpellingOperation()),
+    /**
+     * ReplaceAndFindNextSpellingOperation.
+     */
+    REPLACE(new ReplaceAndFindNextSpellingOperation());
+
+    /**
+     * The operation of the step.
+     */
+    private final SpellcheckOperation operation;
+
+    /**
+     * Constructor.
+     *
+     * @param operation The operation of the step.
+     */
+    Step(SpellcheckOperation operation) {
+      this.operation = operation;
+    }
+  }
+
+  /**
+   * The editing session.
+   */
+  private final InMemoryEditor editor;
+
+  /**
+   * The random generator.
+   */
+  private final Random random;
+
+  /**
+   * Constructor.
+   *
+   * @param document The document of the session.
+   * @param random The random generator.
+   */
+  SimulatedSession(InMemoryDocument document, Random random) {
+    this.editor = new InMemoryEditor(document);
+    this.random = random;
+  }
+
+  /**
+   * @return The document of the session.
+   */
+  InMemoryDocument getDocument() {
+    return editor.getDocument();
+  }
+
+  /**
+   * Choose the next step, weighted like an average user.
+   *
+   * @return The step.
+   */
+  Step chooseStep() {
+    double choice = random.nextDouble();
+    Step step;
+    if (choice < 0.5 || getCurrentWord() == null) {
+      step = Step.FIND_NEXT;
+    } else if (choice < 0.8) {
+      step = Step.IGNORE;
+    } else {
+      step = Step.REPLACE;
+    }
+    return step;
+  }
+
+  /**
+   * Perform a step.
+   *
+   * @param step The step.
+   *
+   * @return The result of the operation.
+   *
+   * @throws AuthorOperationException If the step fails.
+   */
+  String perform(Step step) throws AuthorOperationException {
+    Map<String, Object> args = new HashMap<>();
+    args.put(IgnoreCurrentAndFindNextSpellingOperation.IGNORED_WORDS_ARGUMENT_NAME,
+        Collections.singletonMap(InMemoryDocument.LANGUAGE, Collections.emptyList()));
+    if (step == Step.REPLACE) {
+      // The suggestion of the stand-in spellchecker.
+      args.put("newWord", getCurrentWord().getWord().replace(InMemoryDocument.MISSPELLING_MARKER, ""));
+    }
+    return step.operation.doOperation(editor, args::get);
+  }
+
+  /**
+   * @param result The result of an operation.
+   *
+   * @return <code>true</code> if the operation was rejected because the node was too busy.
+   */
+  static boolean isRejected(String result) {
+    return result != null && result.contains("\"rejected\"");
+  }
+
+  /**
+   * @return The current word of the session, <code>null</code> if there is none.
+   */
+  private SpellcheckWordInfo getCurrentWord() {
+    SpellcheckContext spellcheckContext = editor.getSpellcheckContext();
+    return spellcheckContext != null ? spellcheckContext.getCurrentWord() : null;
+  }
+}
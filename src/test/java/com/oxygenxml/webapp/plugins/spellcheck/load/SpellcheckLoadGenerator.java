@@ -0,0 +1,234 @@
+package com.oxygenxml.webapp.plugins.spellcheck.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckExecutor;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckMetrics;
+import com.oxygenxml.webapp.plugins.spellcheck.load.SimulatedSession.Step;
+
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+
+/**
+ * Load generator that simulates many users stepping through spelling problems at the same time.
+ *
+ * Run it with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.oxygenxml.webapp.plugins.spellcheck.load.SpellcheckLoadGenerator \
+ *   -Dexec.args="sessions=200 durationSec=60"
+ * </pre>
+ *
+ * The arguments are <code>name=value</code> pairs:
+ * <ul>
+ * <li><code>sessions</code> - the number of concurrent sessions.</li>
+ * <li><code>durationSec</code> - how long the sessions run.</li>
+ * <li><code>thinkMs</code> - the mean think time between two steps of a user.</li>
+ * <li><code>words</code> - the number of words of each document.</li>
+ * <li><code>misspellingRate</code> - the fraction of misspelled words.</li>
+ * <li><code>engineNanosPerChar</code> - the simulated engine cost.</li>
+ * <li><code>seed</code> - the random seed.</li>
+ * </ul>
+ *
+ * The spellcheck executor is configured with the usual system properties, so different
+ * configurations can be compared by running the load generator with different <code>-D</code> options.
+ */
+public class SpellcheckLoadGenerator {
+
+  /**
+   * The latencies of the steps, in nanoseconds.
+   */
+  private final Map<Step, List<Long>> latencies = new EnumMap<>(Step.class);
+
+  /**
+   * Number of completed steps.
+   */
+  private final AtomicLong completedSteps = new AtomicLong();
+
+  /**
+   * Number of steps rejected by the admission control.
+   */
+  private final AtomicLong rejectedSteps = new AtomicLong();
+
+  /**
+   * Number of failed steps.
+   */
+  private final AtomicLong failedSteps = new AtomicLong();
+
+  /**
+   * Entry point.
+   *
+   * @param args The <code>name=value</code> arguments.
+   *
+   * @throws InterruptedException If interrupted while waiting for the sessions.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("Expected name=value but got: " + arg);
+      }
+      options.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+
+    int sessions = Integer.parseInt(options.getOrDefault("sessions", "200"));
+    long durationMs = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("durationSec", "30")));
+    long thinkMs = Long.parseLong(options.getOrDefault("thinkMs", "1500"));
+    int words = Integer.parseInt(options.getOrDefault("words", "20000"));
+    double misspellingRate = Double.parseDouble(options.getOrDefault("misspellingRate", "0.002"));
+    long engineNanosPerChar = Long.parseLong(options.getOrDefault("engineNanosPerChar", "200"));
+    long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+
+    System.out.println("Sessions: " + sessions + ", duration: " + durationMs + "ms, think time: " + thinkMs
+        + "ms, words: " + words + ", misspelling rate: " + misspellingRate
+        + ", engine cost: " + engineNanosPerChar + "ns/char");
+
+    new SpellcheckLoadGenerator().run(sessions, durationMs, thinkMs, words, misspellingRate, engineNanosPerChar, seed);
+  }
+
+  /**
+   * Generate the load and print the report.
+   *
+   * @param sessionCount The number of sessions.
+   * @param durationMs How long the sessions run.
+   * @param thinkMs The mean think time between two steps.
+   * @param words The number of words of each document.
+   * @param misspellingRate The fraction of misspelled words.
+   * @param engineNanosPerChar The simulated engine cost.
+   * @param seed The random seed.
+   *
+   * @throws InterruptedException If interrupted while waiting for the sessions.
+   */
+  private void run(int sessionCount, long durationMs, long thinkMs, int words, double misspellingRate,
+      long engineNanosPerChar, long seed) throws InterruptedException {
+    Random seeds = new Random(seed);
+    long heapBefore = usedHeap();
+
+    List<SimulatedSession> sessions = new ArrayList<>();
+    for (int i = 0; i < sessionCount; i++) {
+      Random random = new Random(seeds.nextLong());
+      sessions.add(new SimulatedSession(
+          new InMemoryDocument(words, misspellingRate, engineNanosPerChar, random), random));
+    }
+    long heapAfterSetup = usedHeap();
+
+    for (Step step : Step.values()) {
+      latencies.put(step, new ArrayList<>());
+    }
+
+    ExecutorService users = Executors.newFixedThreadPool(sessionCount);
+    long deadline = System.currentTimeMillis() + durationMs;
+    for (SimulatedSession session : sessions) {
+      Random random = new Random(seeds.nextLong());
+      users.execute(() -> runSession(session, deadline, thinkMs, random));
+    }
+    users.shutdown();
+    users.awaitTermination(durationMs + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+
+    long heapAfterRun = usedHeap();
+    long checkedChars = sessions.stream().mapToLong(s -> s.getDocument().getCheckedChars()).sum();
+
+    System.out.println("Completed steps: " + completedSteps.get()
+        + ", throughput: " + String.format("%.1f", completedSteps.get() * 1000.0 / durationMs) + " steps/s"
+        + ", rejected: " + rejectedSteps.get() + ", failed: " + failedSteps.get());
+    for (Step step : Step.values()) {
+      printPercentiles(step.name(), latencies.get(step));
+    }
+    System.out.println("Characters sent to the engine: " + checkedChars + ", " + SpellcheckMetrics.getInstance());
+    System.out.println("Rejected by the executor: " + SpellcheckExecutor.getInstance().getRejectedCount());
+    System.out.println("Heap per session: " + (heapAfterSetup - heapBefore) / sessionCount / 1024 + "KB after setup, "
+        + (heapAfterRun - heapBefore) / sessionCount / 1024 + "KB after run");
+  }
+
+  /**
+   * Run the steps of a session until the deadline.
+   *
+   * @param session The session.
+   * @param deadline The deadline.
+   * @param thinkMs The mean think time between two steps.
+   * @param random The random generator.
+   */
+  private void runSession(SimulatedSession session, long deadline, long thinkMs, Random random) {
+    Map<Step, List<Long>> sessionLatencies = new EnumMap<>(Step.class);
+    for (Step step : Step.values()) {
+      sessionLatencies.put(step, new ArrayList<>());
+    }
+    try {
+      while (System.currentTimeMillis() < deadline) {
+        // Exponentially distributed think times.
+        long think = (long) (-Math.log(1 - random.nextDouble()) * thinkMs);
+        Thread.sleep(Math.min(think, Math.max(0, deadline - System.currentTimeMillis())));
+
+        Step step = session.chooseStep();
+        long start = System.nanoTime();
+        try {
+          String result = session.perform(step);
+          if (SimulatedSession.isRejected(result)) {
+            rejectedSteps.incrementAndGet();
+          } else {
+            sessionLatencies.get(step).add(System.nanoTime() - start);
+            completedSteps.incrementAndGet();
+          }
+        } catch (AuthorOperationException | RuntimeException e) {
+          failedSteps.incrementAndGet();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (latencies) {
+      for (Step step : Step.values()) {
+        latencies.get(step).addAll(sessionLatencies.get(step));
+      }
+    }
+  }
+
+  /**
+   * Print the latency percentiles of a step.
+   *
+   * @param name The name of the step.
+   * @param stepLatencies The latencies of the step.
+   */
+  private static void printPercentiles(String name, List<Long> stepLatencies) {
+    long[] sorted = stepLatencies.stream().mapToLong(Long::longValue).toArray();
+    Arrays.sort(sorted);
+    System.out.println(String.format("%-10s count: %7d, p50: %8.2fms, p99: %8.2fms, p999: %8.2fms",
+        name, sorted.length, percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 0.999)));
+  }
+
+  /**
+   * Compute a percentile.
+   *
+   * @param sorted The sorted latencies, in nanoseconds.
+   * @param fraction The percentile, as a fraction.
+   *
+   * @return The percentile, in milliseconds.
+   */
+  private static double percentile(long[] sorted, double fraction) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+
+  /**
+   * @return The used heap, after a garbage collection.
+   */
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
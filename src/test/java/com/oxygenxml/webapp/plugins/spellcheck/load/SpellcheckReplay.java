@@ -0,0 +1,237 @@
+package com.oxygenxml.webapp.plugins.spellcheck.load;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oxygenxml.webapp.plugins.spellcheck.SpellcheckMetrics;
+
+import ro.sync.ecss.extensions.api.AuthorOperationException;
+
+/**
+ * Replays the spelling sessions recorded by the SpellcheckSessionRecorder with the operations of the plugin
+ * on in-memory stand-ins, and compares the latency of each operation with the recorded one.
+ *
+ * Run it with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.oxygenxml.webapp.plugins.spellcheck.load.SpellcheckReplay \
+ *   -Dexec.args="recording=/path/to/recordings"
+ * </pre>
+ *
+ * The arguments are <code>name=value</code> pairs:
+ * <ul>
+ * <li><code>recording</code> - a recording file, or a directory of recordings. The sessions are replayed
+ * concurrently.</li>
+ * <li><code>realTime</code> - <code>true</code> to keep the recorded time between the steps,
+ * <code>false</code> to replay the steps back to back.</li>
+ * <li><code>engineNanosPerChar</code> - the simulated engine cost.</li>
+ * </ul>
+ *
+ * The engine is simulated, so the absolute latencies differ from the recorded ones. Compare the replayed
+ * latencies of two plugin builds on the same recordings.
+ */
+public class SpellcheckReplay {
+
+  /**
+   * The recorded latencies per operation, in nanoseconds.
+   */
+  private final Map<String, List<Long>> recordedLatencies = new TreeMap<>();
+
+  /**
+   * The replayed latencies per operation, in nanoseconds.
+   */
+  private final Map<String, List<Long>> replayedLatencies = new TreeMap<>();
+
+  /**
+   * Number of steps rejected by the admission control.
+   */
+  private final AtomicLong rejectedSteps = new AtomicLong();
+
+  /**
+   * Number of failed steps.
+   */
+  private final AtomicLong failedSteps = new AtomicLong();
+
+  /**
+   * Entry point.
+   *
+   * @param args The <code>name=value</code> arguments.
+   *
+   * @throws IOException If the recordings cannot be read.
+   * @throws InterruptedException If interrupted while waiting for the sessions.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("Expected name=value but got: " + arg);
+      }
+      options.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+    if (!options.containsKey("recording")) {
+      throw new IllegalArgumentException("Missing the recording argument");
+    }
+
+    Path recording = Paths.get(options.get("recording"));
+    boolean realTime = Boolean.parseBoolean(options.getOrDefault("realTime", "false"));
+    long engineNanosPerChar = Long.parseLong(options.getOrDefault("engineNanosPerChar", "200"));
+
+    List<Path> files;
+    if (Files.isDirectory(recording)) {
+      try (Stream<Path> children = Files.list(recording)) {
+        files = children.filter(file -> file.toString().endsWith(".jsonl")).sorted().collect(Collectors.toList());
+      }
+    } else {
+      files = Arrays.asList(recording);
+    }
+
+    List<ReplayedSession> sessions = new ArrayList<>();
+    ObjectMapper objectMapper = new ObjectMapper();
+    for (Path file : files) {
+      List<Map<String, Object>> steps = new ArrayList<>();
+      for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        if (!line.trim().isEmpty()) {
+          @SuppressWarnings("unchecked")
+          Map<String, Object> step = objectMapper.readValue(line, Map.class);
+          steps.add(step);
+        }
+      }
+      sessions.add(new ReplayedSession(steps, engineNanosPerChar));
+    }
+
+    System.out.println("Sessions: " + sessions.size() + ", steps: "
+        + sessions.stream().mapToInt(session -> session.getSteps().size()).sum()
+        + ", real time: " + realTime + ", engine cost: " + engineNanosPerChar + "ns/char");
+
+    new SpellcheckReplay().run(sessions, realTime);
+  }
+
+  /**
+   * Replay the sessions and print the report.
+   *
+   * @param sessions The sessions.
+   * @param realTime <code>true</code> to keep the recorded time between the steps.
+   *
+   * @throws InterruptedException If interrupted while waiting for the sessions.
+   */
+  private void run(List<ReplayedSession> sessions, boolean realTime) throws InterruptedException {
+    if (sessions.isEmpty()) {
+      return;
+    }
+    ExecutorService users = Executors.newFixedThreadPool(sessions.size());
+    long startMs = System.currentTimeMillis();
+    for (ReplayedSession session : sessions) {
+      users.execute(() -> replaySession(session, realTime ? startMs : -1));
+    }
+    users.shutdown();
+    users.awaitTermination(1, TimeUnit.DAYS);
+
+    System.out.println("Replayed in " + (System.currentTimeMillis() - startMs) + "ms"
+        + ", rejected: " + rejectedSteps.get() + ", failed: " + failedSteps.get());
+    for (Map.Entry<String, List<Long>> entry : replayedLatencies.entrySet()) {
+      String operation = entry.getKey();
+      long[] recorded = sort(recordedLatencies.get(operation));
+      long[] replayed = sort(entry.getValue());
+      System.out.println(String.format(
+          "%-45s count: %6d, recorded p50: %8.2fms p99: %8.2fms, replayed p50: %8.2fms p99: %8.2fms",
+          operation, replayed.length,
+          percentile(recorded, 0.5), percentile(recorded, 0.99),
+          percentile(replayed, 0.5), percentile(replayed, 0.99)));
+    }
+    System.out.println(SpellcheckMetrics.getInstance());
+  }
+
+  /**
+   * Replay the steps of a session.
+   *
+   * @param session The session.
+   * @param startMs The time when the replay started, or -1 to replay the steps back to back.
+   */
+  private void replaySession(ReplayedSession session, long startMs) {
+    Map<String, List<Long>> sessionRecorded = new HashMap<>();
+    Map<String, List<Long>> sessionReplayed = new HashMap<>();
+    try {
+      for (Map<String, Object> step : session.getSteps()) {
+        if (startMs != -1) {
+          long delay = startMs + ReplayedSession.getInt(step, "t", 0) - System.currentTimeMillis();
+          if (delay > 0) {
+            Thread.sleep(delay);
+          }
+        }
+
+        if (!ReplayedSession.isReplayed(step)) {
+          continue;
+        }
+        String operation = (String) step.get("op");
+        long start = System.nanoTime();
+        try {
+          String result = session.perform(step);
+          if (SimulatedSession.isRejected(result)) {
+            rejectedSteps.incrementAndGet();
+          } else {
+            sessionReplayed.computeIfAbsent(operation, op -> new ArrayList<>()).add(System.nanoTime() - start);
+            long recordedNanos = (long) (((Number) step.get("durationMs")).doubleValue() * 1e6);
+            sessionRecorded.computeIfAbsent(operation, op -> new ArrayList<>()).add(recordedNanos);
+          }
+        } catch (AuthorOperationException | RuntimeException e) {
+          failedSteps.incrementAndGet();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (replayedLatencies) {
+      sessionReplayed.forEach((op, latencies) ->
+          replayedLatencies.computeIfAbsent(op, o -> new ArrayList<>()).addAll(latencies));
+      sessionRecorded.forEach((op, latencies) ->
+          recordedLatencies.computeIfAbsent(op, o -> new ArrayList<>()).addAll(latencies));
+    }
+  }
+
+  /**
+   * Sort latencies.
+   *
+   * @param latencies The latencies.
+   *
+   * @return The sorted latencies.
+   */
+  private static long[] sort(List<Long> latencies) {
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  /**
+   * Compute a percentile.
+   *
+   * @param sorted The sorted latencies, in nanoseconds.
+   * @param fraction The percentile, as a fraction.
+   *
+   * @return The percentile, in milliseconds.
+   */
+  private static double percentile(long[] sorted, double fraction) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+}
@@ -80,6 +80,93 @@ describe('ManualSpellcheckingTest', function() {
     manSpAction.findNext().then(() => done());
   });
 
+  it('findNext should show a message when the server rejects the request', function (done) {
+    let editor = stubEditor();
+    editor.problemReporter = {showInfo: sinon.spy()};
+
+    let respose = JSON.stringify({rejected: true});
+    editor.getEditingSupport().getOperationsInvoker()
+        .invoke.returns(Promise.resolve(respose));
+    manSpAction = new SpellcheckAction(editor);
+    manSpAction.showDialog_();
+    manSpAction.findNext()
+        .then(() => {
+          assert(editor.problemReporter.showInfo.callCount === 1);
+          assert(manSpAction.wordInput_.value === '');
+        })
+        .then(() => done(), done);
+  });
+
+  it('ignore should use the window of upcoming problems', function (done) {
+    let editor = stubEditor();
+    let invoke = editor.getEditingSupport().getOperationsInvoker().invoke;
+
+    let respose = JSON.stringify({word: 'xxx', suggestions: ['yyy'], version: 3,
+      window: [{word: 'zzz', language: 'en_US', startOffset: 10, endOffset: 12, suggestions: ['www']}]});
+    invoke.returns(Promise.resolve(respose));
+    manSpAction = new SpellcheckAction(editor);
+    manSpAction.showDialog_();
+    manSpAction.findNext()
+        .then(() => {
+          invoke.returns(Promise.resolve(null));
+          let ignorePromise = manSpAction.ignore_();
+          // The next problem is displayed before the server responds.
+          assert(manSpAction.wordInput_.value === 'zzz');
+          return ignorePromise;
+        })
+        .then(() => {
+          assert(invoke.lastCall.args[0] === 'com.oxygenxml.webapp.plugins.spellcheck.SelectSpellingProblemOperation');
+          let params = invoke.lastCall.args[1].params;
+          assert(params.version === 3 && params.startOffset === 10 && params.ignoreCurrent === true);
+        })
+        .then(() => done(), done);
+  });
+
+  it('ignore should ask the server when the window is stale', function (done) {
+    let editor = stubEditor();
+    let invoke = editor.getEditingSupport().getOperationsInvoker().invoke;
+
+    let respose = JSON.stringify({word: 'xxx', suggestions: ['yyy'], version: 3,
+      window: [{word: 'zzz', language: 'en_US', startOffset: 10, endOffset: 12, suggestions: ['www']}]});
+    invoke.returns(Promise.resolve(respose));
+    manSpAction = new SpellcheckAction(editor);
+    manSpAction.showDialog_();
+    manSpAction.findNext()
+        .then(() => {
+          invoke.onCall(1).returns(Promise.resolve(JSON.stringify({stale: true})));
+          invoke.onCall(2).returns(Promise.resolve(JSON.stringify({word: 'vvv', suggestions: []})));
+          return manSpAction.ignore_();
+        })
+        .then(() => {
+          assert(invoke.lastCall.args[0] === 'com.oxygenxml.webapp.plugins.spellcheck.IgnoreCurrentAndFindNextSpellingOperation');
+          assert(manSpAction.wordInput_.value === 'vvv');
+        })
+        .then(() => done(), done);
+  });
+
+  it('findNext should fetch the suggestions separately', function (done) {
+    let editor = stubEditor();
+    let invoke = editor.getEditingSupport().getOperationsInvoker().invoke;
+
+    let suggestionsResult = JSON.stringify({suggestions: ['yyy', 'zzz'], timedOut: false});
+    invoke.onCall(0).returns(Promise.resolve(JSON.stringify({word: 'xxx', language: 'en_US', startOffset: 3})));
+    invoke.onCall(1).returns(Promise.resolve(suggestionsResult));
+    manSpAction = new SpellcheckAction(editor);
+    manSpAction.showDialog_();
+    manSpAction.findNext()
+        .then(() => {
+          assert(invoke.getCall(1).args[0] === 'com.oxygenxml.webapp.plugins.spellcheck.FindSpellingSuggestionsOperation');
+          // Replace is not possible until the suggestions arrive.
+          assert(manSpAction.replaceButton_.disabled === true);
+          return invoke.getCall(1).returnValue;
+        })
+        .then(() => {
+          assert(manSpAction.replaceInput_.value === 'yyy');
+          assert(manSpAction.replaceButton_.disabled === false);
+        })
+        .then(() => done(), done);
+  });
+
   it('should call findNext on enter', function (done) {
     let editor = stubEditor();
 
@@ -103,6 +190,82 @@ describe('ManualSpellcheckingTest', function() {
         .finally(() => done());
   });
 
+  it('should ignore Enter and clicks while a transaction runs', function (done) {
+    let editor = stubEditor();
+    let editingSupport = editor.getEditingSupport();
+    let invoke = editingSupport.getOperationsInvoker().invoke;
+
+    invoke.returns(Promise.resolve(JSON.stringify({word: 'xxx', suggestions: ['yyy']})));
+    manSpAction = new SpellcheckAction(editor);
+    manSpAction.showDialog_();
+    manSpAction.findNext()
+        .then(() => {
+          editingSupport.scheduleDocumentTransaction.callsFake(task => task());
+          // The replace does not finish during the test.
+          invoke.returns(new Promise(() => {}));
+          manSpAction.replaceInput_.dispatchEvent(createEnterEvent());
+          manSpAction.replaceInput_.dispatchEvent(createEnterEvent());
+          manSpAction.clickOnButtons_({target: manSpAction.ignoreButton_});
+
+          assert(editingSupport.scheduleDocumentTransaction.callCount === 1);
+          // The buttons show that the dialog is busy.
+          assert(manSpAction.ignoreButton_.disabled === true);
+        })
+        .then(() => done(), done);
+  });
+
+  it('should let the user retry after a failed transaction', function (done) {
+    let editor = stubEditor();
+    let editingSupport = editor.getEditingSupport();
+    let invoke = editingSupport.getOperationsInvoker().invoke;
+
+    invoke.returns(Promise.resolve(JSON.stringify({word: 'xxx', suggestions: ['yyy']})));
+    manSpAction = new SpellcheckAction(editor);
+    manSpAction.showDialog_();
+    manSpAction.findNext()
+        .then(() => {
+          editingSupport.scheduleDocumentTransaction.callsFake(task => task());
+          invoke.returns(Promise.reject(new Error('Network error')));
+          manSpAction.replaceInput_.dispatchEvent(createEnterEvent());
+          assert(manSpAction.transactionPending_ === true);
+          return new Promise(resolve => setTimeout(resolve, 0));
+        })
+        .then(() => {
+          assert(manSpAction.transactionPending_ === false);
+          assert(manSpAction.replaceButton_.disabled === false);
+          manSpAction.replaceInput_.dispatchEvent(createEnterEvent());
+          assert(editingSupport.scheduleDocumentTransaction.callCount === 2);
+        })
+        .then(() => done(), done);
+  });
+
+  it('should clear the pending flag when a transaction throws', function () {
+    let editor = stubEditor();
+    let failure = new Error('Failed');
+    editor.getEditingSupport().scheduleDocumentTransaction.callsFake(task => {
+      try {
+        task();
+      } catch (e) {
+        assert(e === failure);
+      }
+    });
+    manSpAction = new SpellcheckAction(editor);
+    manSpAction.showDialog_();
+    manSpAction.scheduleDocumentTransaction_(() => {
+      throw failure;
+    }, null);
+    assert(manSpAction.transactionPending_ === false);
+  });
+
+  it('should not block the dialog while a transaction waits to run', function () {
+    let editor = stubEditor();
+    manSpAction = new SpellcheckAction(editor);
+    manSpAction.actionPerformed();
+    // The stub never runs the scheduled transaction.
+    assert(editor.getEditingSupport().scheduleDocumentTransaction.callCount === 1);
+    assert(manSpAction.transactionPending_ === false);
+  });
+
   function createEnterEvent() {
     let event = new CustomEvent('keyup');
     event.keyCode = goog.events.KeyCodes.ENTER;
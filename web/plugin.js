@@ -45,11 +45,60 @@ var spellingDialogActionId = 'Author/SpellingDialog';
 
    // If the editor gets disposed, do not do callbacks of spellcheck action requests.
    this.disposed_ = false;
+
+   /**
+    * The upcoming problems received from the server, served without a new scan.
+    * @type {Array<{language: string, word: string, startOffset: number, endOffset: number, suggestions: Array<string>}>}
+    */
+   this.problemWindow_ = [];
+   /**
+    * The version of the document in which the upcoming problems were found.
+    * @type {number|undefined}
+    */
+   this.problemWindowVersion_ = undefined;
+
+   /**
+    * The problem displayed in the dialog.
+    * @type {Object}
+    */
+   this.currentProblem_ = null;
+   /**
+    * Whether the suggestions for the current problem are being computed.
+    * @type {boolean}
+    */
+   this.suggestionsPending_ = false;
+   /**
+    * Whether a document transaction of the dialog is running. The buttons are disabled meanwhile and, like
+    * them, Enter presses and clicks have no effect, so that a burst of them does not queue a search for each.
+    * @type {boolean}
+    */
+   this.transactionPending_ = false;
  }
  // shortcut is Meta+L on Mac and Ctrl+L on other platforms.
  SpellcheckAction.prototype = Object.create(sync.actions.Action.prototype);
  SpellcheckAction.prototype.constructor = SpellcheckAction;
 
+ /**
+  * The number of problems requested from the server at once.
+  * @type {number}
+  * @private
+  */
+ SpellcheckAction.PROBLEM_WINDOW_SIZE_ = 5;
+
+ /**
+  * The maximum number of suggestions displayed for a problem.
+  * @type {number}
+  * @private
+  */
+ SpellcheckAction.MAX_SUGGESTIONS_ = 10;
+
+ /**
+  * The time the server may spend computing the suggestions for a problem, in milliseconds.
+  * @type {number}
+  * @private
+  */
+ SpellcheckAction.SUGGESTIONS_TIME_BUDGET_MS_ = 1000;
+
  SpellcheckAction.prototype.getLargeIcon = function () {
    var icon = 'SpellCheck24.png';
    if (document.querySelector('.no-app-bar')) {
@@ -102,7 +151,11 @@ var spellingDialogActionId = 'Author/SpellingDialog';
  SpellcheckAction.prototype.findNext = function () {
    return this.operationsInvoker_.invoke(
      'com.oxygenxml.webapp.plugins.spellcheck.GoToNextSpellingErrorOperation', {
-        params: {ignoredWords: this.editor_.getSpellChecker().getIgnoredWords()}
+        params: {
+          ignoredWords: this.editor_.getSpellChecker().getIgnoredWords(),
+          windowSize: SpellcheckAction.PROBLEM_WINDOW_SIZE_,
+          includeSuggestions: false
+        }
      })
        .then(this.processNextProblemFindResult_.bind(this))
        .catch(this.handleSpellCheckOperationError_.bind(this));
@@ -118,6 +171,7 @@ var spellingDialogActionId = 'Author/SpellingDialog';
       console.error(err);
       var errorMessage = tr(msgs.ERROR_COMMUNICATING_WITH_SERVER_);
       this.editor_.problemReporter && this.editor_.problemReporter.showError(errorMessage, true);
+      this.enableButtonsAfterError_();
     }
   };
 
@@ -304,7 +358,7 @@ var spellingDialogActionId = 'Author/SpellingDialog';
    */
   SpellcheckAction.prototype.clickOnButtons_ = function (e) {
     var button = goog.dom.getAncestorByClass(e.target, 'man-sp-button');
-    if (button) {
+    if (button && !this.transactionPending_) {
       var buttonType = goog.dom.dataset.get(button, 'spButton');
       if (buttonType === 'ignore') {
         // just go to next marker.
@@ -315,7 +369,7 @@ var spellingDialogActionId = 'Author/SpellingDialog';
         this.scheduleDocumentTransaction_(this.replace_, this);
       } else if (buttonType === 'replace_all') {
         this.scheduleDocumentTransaction_(function() {
-          this.replace_(true)
+          return this.replace_(true);
         }, this);
       }
     }
@@ -331,7 +385,11 @@ var spellingDialogActionId = 'Author/SpellingDialog';
     var word = this.word_;
     // Add the word to the ignore list for the language.
     this.editor_.getSpellChecker().addIgnoredWord(language, word);
-    return this.findNext();
+    // Drop the other occurrences of the word from the upcoming problems.
+    this.problemWindow_ = goog.array.filter(this.problemWindow_, function(problem) {
+      return problem.word !== word || problem.language.substring(0, 2) !== language.substring(0, 2);
+    });
+    return this.problemWindow_.length ? this.selectFromWindow_(false) : this.findNext();
   };
 
   /**
@@ -340,14 +398,63 @@ var spellingDialogActionId = 'Author/SpellingDialog';
    * @private
    */
   SpellcheckAction.prototype.ignore_ = function () {
+    if (this.problemWindow_.length) {
+      return this.selectFromWindow_(true);
+    }
     return this.operationsInvoker_.invoke(
       'com.oxygenxml.webapp.plugins.spellcheck.IgnoreCurrentAndFindNextSpellingOperation', {
-        params: {ignoredWords: this.editor_.getSpellChecker().getIgnoredWords()}
+        params: {
+          ignoredWords: this.editor_.getSpellChecker().getIgnoredWords(),
+          windowSize: SpellcheckAction.PROBLEM_WINDOW_SIZE_,
+          includeSuggestions: false
+        }
       })
         .then(this.processNextProblemFindResult_.bind(this))
         .catch(this.handleSpellCheckOperationError_.bind(this));
   };
 
+  /**
+   * Go to the next problem from the window of upcoming problems.
+   *
+   * The problem is displayed right away and the server only moves the selection. If the document changed
+   * since the window was computed, the window is dropped and the server scans for the next problem.
+   *
+   * @param {boolean} ignoreCurrent True to ignore the current problem.
+   * @return {Promise}
+   *
+   * @private
+   */
+  SpellcheckAction.prototype.selectFromWindow_ = function (ignoreCurrent) {
+    var nextProblem = this.problemWindow_.shift();
+    this.displayProblem_(nextProblem);
+    return this.operationsInvoker_.invoke(
+      'com.oxygenxml.webapp.plugins.spellcheck.SelectSpellingProblemOperation', {
+        params: {
+          ignoreCurrent: ignoreCurrent,
+          version: this.problemWindowVersion_,
+          word: nextProblem.word,
+          language: nextProblem.language,
+          startOffset: nextProblem.startOffset,
+          endOffset: nextProblem.endOffset
+        }
+      })
+        .then(function(resultString) {
+          // If dialog was closed or disposed, do nothing.
+          if (!this.dialog_ || !this.dialog_.isVisible() || this.disposed_) {
+            return;
+          }
+          /** @type {{stale: boolean=}} */
+          var result = resultString ? JSON.parse(resultString) : {};
+          if (result.stale) {
+            this.problemWindow_ = [];
+            return ignoreCurrent ? this.ignore_() : this.findNext();
+          } else {
+            this.problemSelected_();
+          }
+        }.bind(this))
+        .catch(this.handleSpellCheckOperationError_.bind(this));
+  };
+
   /**
    * Replace an error with the selected value.
    *
@@ -361,7 +468,9 @@ var spellingDialogActionId = 'Author/SpellingDialog';
           params: {
             newWord: this.replaceInput_.value,
             replaceAll : !!all,
-            ignoredWords: this.editor_.getSpellChecker().getIgnoredWords()
+            ignoredWords: this.editor_.getSpellChecker().getIgnoredWords(),
+            windowSize: SpellcheckAction.PROBLEM_WINDOW_SIZE_,
+            includeSuggestions: false
           }
       })
         .then(function(resultString) {
@@ -433,7 +542,7 @@ var spellingDialogActionId = 'Author/SpellingDialog';
       return;
     }
     /**
-     * @type {{language: string, word: string, suggestions: [string]}}
+     * @type {{language: string, word: string, suggestions: [string], rejected: boolean=}}
      */
     var nextSpellCheckDescr;
     try {
@@ -442,22 +551,45 @@ var spellingDialogActionId = 'Author/SpellingDialog';
       nextSpellCheckDescr = {};
     }
 
-    var word = nextSpellCheckDescr.word;
+    if (nextSpellCheckDescr.rejected) {
+      // The server is overloaded, let the user retry.
+      this.setSpellCheckButtonsEnabled_(!!this.word_);
+      this.showInfo_(tr(msgs.SPELL_CHECK_SERVER_BUSY_));
+      return;
+    }
+
+    // Keep the upcoming problems to serve the next steps without a new scan.
+    this.problemWindow_ = nextSpellCheckDescr.window || [];
+    this.problemWindowVersion_ = nextSpellCheckDescr.version;
+
+    if (this.displayProblem_(nextSpellCheckDescr)) {
+      this.problemSelected_();
+    }
+  };
+
+  /**
+   * Display a spellcheck problem in the dialog.
+   *
+   * @param {{language: string, word: string, suggestions: [string]}} problem The problem.
+   * @return {boolean} True if there is a problem to display.
+   *
+   * @private
+   */
+  SpellcheckAction.prototype.displayProblem_ = function(problem) {
+    var word = problem.word;
     this.wordInput_.value = word || '';
+    this.currentProblem_ = problem;
+    this.suggestionsPending_ = false;
     if (word) {
       this.word_ = word;
-      this.language_ = nextSpellCheckDescr.language;
-      var suggestions = nextSpellCheckDescr.suggestions;
+      this.language_ = problem.language;
+      var suggestions = problem.suggestions;
       if (suggestions) {
         this.displaySuggestions_(suggestions);
-      }
-      // If selection is now in readonly content, disable replace buttons.
-      this.setSpellCheckButtonsEnabled_(true);
-      var editorReadOnlyStatus = this.editor_.getReadOnlyState().readOnly;
-      var selectionInReadOnlyContent = this.editor_.getSelectionManager().evalSelectionFunction(sync.util.isInReadOnlyContent);
-      if (editorReadOnlyStatus || selectionInReadOnlyContent) {
-        this.replaceButton_.disabled = true;
-        this.replaceAllButton_.disabled = true;
+      } else {
+        this.clearSpellCheckSuggestions_();
+        // noinspection JSIgnoredPromiseFromCall
+        this.fetchSuggestions_(problem);
       }
     } else {
       this.clearSpellCheckSuggestions_();
@@ -465,7 +597,17 @@ var spellingDialogActionId = 'Author/SpellingDialog';
     }
 
     this.replaceInput_.focus();
+    return !!word;
+  };
 
+  /**
+   * Update the dialog after the current problem was selected in the editor.
+   *
+   * @private
+   */
+  SpellcheckAction.prototype.problemSelected_ = function() {
+    this.setSpellCheckButtonsEnabled_(true);
+    this.updateReplaceButtons_();
 
     var selection = this.editor_.getSelectionManager().getSelection();
     this.editor_.getSelectionManager().scrollSelectionIntoView(selection);
@@ -475,6 +617,66 @@ var spellingDialogActionId = 'Author/SpellingDialog';
     this.makeTransparentIfOverSelected_(selectedMarkerChunks);
   };
 
+  /**
+   * Disable the replace buttons if the selection is in readonly content or the suggestions are not available yet.
+   *
+   * @private
+   */
+  SpellcheckAction.prototype.updateReplaceButtons_ = function() {
+    var editorReadOnlyStatus = this.editor_.getReadOnlyState().readOnly;
+    var selectionInReadOnlyContent = this.editor_.getSelectionManager().evalSelectionFunction(sync.util.isInReadOnlyContent);
+    var replaceDisabled = editorReadOnlyStatus || selectionInReadOnlyContent || this.suggestionsPending_;
+    this.replaceButton_.disabled = replaceDisabled;
+    this.replaceAllButton_.disabled = replaceDisabled;
+  };
+
+  /**
+   * Ask the server for the suggestions of a problem and display them.
+   *
+   * @param {{language: string, word: string, startOffset: number}} problem The problem.
+   * @return {Promise} when the suggestions are displayed.
+   *
+   * @private
+   */
+  SpellcheckAction.prototype.fetchSuggestions_ = function(problem) {
+    this.suggestionsPending_ = true;
+    return this.operationsInvoker_.invoke(
+      'com.oxygenxml.webapp.plugins.spellcheck.FindSpellingSuggestionsOperation', {
+        params: {
+          word: problem.word,
+          language: problem.language,
+          startOffset: problem.startOffset,
+          maxSuggestions: SpellcheckAction.MAX_SUGGESTIONS_,
+          timeBudgetMs: SpellcheckAction.SUGGESTIONS_TIME_BUDGET_MS_
+        },
+        options: {background: true}
+      })
+        .then(function(resultString) {
+          // If the user moved to another problem or closed the dialog, drop the suggestions.
+          if (this.currentProblem_ !== problem || !this.dialog_ || !this.dialog_.isVisible() || this.disposed_) {
+            return;
+          }
+          /** @type {{suggestions: Array<string>=, timedOut: boolean=}} */
+          var result = resultString ? JSON.parse(resultString) : {};
+          var suggestions = result.suggestions || [];
+          if (!result.timedOut) {
+            // Keep them, in case the problem is displayed again.
+            problem.suggestions = suggestions;
+          }
+          this.suggestionsPending_ = false;
+          // Do not overwrite what the user typed in the meantime.
+          var typedReplacement = this.replaceInput_.value;
+          this.displaySuggestions_(suggestions);
+          if (typedReplacement) {
+            this.replaceInput_.value = typedReplacement;
+          }
+          if (!this.ignoreButton_.disabled) {
+            this.updateReplaceButtons_();
+          }
+        }.bind(this))
+        .catch(this.handleSpellCheckOperationError_.bind(this));
+  };
+
   /**
    * Activate/inactivate the spellcheck.
    *
@@ -495,6 +697,7 @@ var spellingDialogActionId = 'Author/SpellingDialog';
   SpellcheckAction.prototype.beforeHide_ = function () {
     // noinspection JSIgnoredPromiseFromCall
     this.clearSpellcheckContextInformation_();
+    this.problemWindow_ = [];
     this.dialogOpenHandler_.removeAll();
   };
 
@@ -521,11 +724,13 @@ var spellingDialogActionId = 'Author/SpellingDialog';
    */
   SpellcheckAction.prototype.doActionOnEnter_ = function (e) {
     // On Enter do Replace if enabled, Ignore otherwise.
-    if (e.keyCode === goog.events.KeyCodes.ENTER) {
+    if (e.keyCode === goog.events.KeyCodes.ENTER && !this.transactionPending_) {
       if (this.replaceButton_.disabled === false) {
         this.scheduleDocumentTransaction_(this.replace_, this);
       } else if (this.ignoreButton_.disabled === false) {
-        this.scheduleDocumentTransaction_(this.findNext, this);
+        this.scheduleDocumentTransaction_(function() {
+          return this.problemWindow_.length ? this.selectFromWindow_(false) : this.findNext();
+        }, this);
       }
     }
   };
@@ -537,12 +742,44 @@ var spellingDialogActionId = 'Author/SpellingDialog';
    * @private
    */
   SpellcheckAction.prototype.scheduleDocumentTransaction_ = function (transaction, context) {
+    var clearPending = function() {
+      this.transactionPending_ = false;
+    }.bind(this);
+    var recover = function() {
+      clearPending();
+      this.enableButtonsAfterError_();
+    }.bind(this);
     this.editor_.getEditingSupport().scheduleDocumentTransaction(function() {
+      // Set only once the transaction runs, so that every path below clears it.
+      this.transactionPending_ = true;
       this.setSpellCheckButtonsEnabled_(false);
-      return transaction.call(context);
+      var result;
+      try {
+        result = transaction.call(context);
+      } catch (e) {
+        recover();
+        throw e;
+      }
+      if (result && typeof result.then === 'function') {
+        result.then(clearPending, recover);
+      } else {
+        clearPending();
+      }
+      return result;
     }.bind(this));
   };
 
+  /**
+   * Enable the buttons again after a failed operation, so that the user can retry the current problem.
+   * @private
+   */
+  SpellcheckAction.prototype.enableButtonsAfterError_ = function () {
+    if (this.dialog_ && this.dialog_.isVisible() && !this.disposed_ && this.word_) {
+      this.setSpellCheckButtonsEnabled_(true);
+      this.updateReplaceButtons_();
+    }
+  };
+
  // The actual action execution.
  SpellcheckAction.prototype.actionPerformed = function(callback) {
    this.showDialog_();